@@ -0,0 +1,55 @@
+package org.protege.editor.owl.client.diff.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.protege.editor.owl.client.diff.model.Change;
+import org.protege.editor.owl.client.diff.model.ChangeId;
+import org.protege.editor.owl.client.diff.model.LogDiff;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of looking up changes by identifier, as the conflict and review panels do for every selection
+ *
+ * @author Rafael Gonçalves <br>
+ * Stanford Center for Biomedical Informatics Research
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ChangeLookupBenchmark {
+
+    /**
+     * Diff state with the identifiers of all computed changes, in random order
+     */
+    @State(Scope.Benchmark)
+    public static class LookupState extends DiffState {
+        protected List<ChangeId> changeIds;
+
+        @Override
+        protected void prepare() {
+            changeIds = new ArrayList<>();
+            for (Change change : getDiff().getChanges()) {
+                changeIds.add(change.getId());
+            }
+            Collections.shuffle(changeIds, new Random(0));
+        }
+    }
+
+    /**
+     * Look up every computed change by its identifier
+     */
+    @Benchmark
+    public void getChange(LookupState state, Blackhole blackhole) {
+        LogDiff diff = state.getDiff();
+        for (ChangeId id : state.changeIds) {
+            blackhole.consume(diff.getChange(id));
+        }
+    }
+}
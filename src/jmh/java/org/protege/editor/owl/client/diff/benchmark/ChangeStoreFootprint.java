@@ -0,0 +1,48 @@
+package org.protege.editor.owl.client.diff.benchmark;
+
+import org.protege.editor.owl.client.diff.model.LogDiff;
+import org.protege.editor.owl.client.diff.model.LogDiffManager;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+
+/**
+ * Reports the heap retained by a log diff that has processed a synthetic history, for each change store.
+ * Run with: mvn -P benchmarks test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=org.protege.editor.owl.client.diff.benchmark.ChangeStoreFootprint
+ * optionally passing the number of revisions, changes per revision, subject skew, number of authors and
+ * change identifier scheme (sequential or uuid) through -Dexec.args
+ *
+ * @author Rafael Gonçalves <br>
+ * Stanford Center for Biomedical Informatics Research
+ */
+public class ChangeStoreFootprint {
+    private static final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+
+    public static void main(String[] args) throws Exception {
+        DiffState state = new DiffState();
+        state.revisions = (args.length > 0 ? Integer.parseInt(args[0]) : 10000);
+        state.changesPerRevision = (args.length > 1 ? Integer.parseInt(args[1]) : 10);
+        state.subjectSkew = (args.length > 2 ? Double.parseDouble(args[2]) : 1.0);
+        state.authors = (args.length > 3 ? Integer.parseInt(args[3]) : 10);
+        state.changeIds = (args.length > 4 ? args[4] : "sequential");
+        state.store = "map";
+        state.setUp();
+        state.diff = null; // only the synthetic history is kept across measurements
+        for (String store : new String[]{"map", "compact"}) {
+            state.store = store;
+            long before = getUsedHeap();
+            LogDiff diff = state.createDiff();
+            diff.initDiff();
+            long after = getUsedHeap();
+            int changes = diff.getChangesForUser(LogDiffManager.ALL_AUTHORS).size();
+            System.out.println(store + " change store: " + changes + " changes, " + ((after - before) / 1024) + " KB retained");
+        }
+    }
+
+    private static long getUsedHeap() {
+        for (int i = 0; i < 3; i++) {
+            memory.gc();
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+}
@@ -0,0 +1,32 @@
+package org.protege.editor.owl.client.diff.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.protege.editor.owl.client.diff.model.Change;
+import org.protege.editor.owl.client.diff.model.LogDiffEvent;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of getting the changes to display in response to each log diff event
+ *
+ * @author Rafael Gonçalves <br>
+ * Stanford Center for Biomedical Informatics Research
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ChangesToDisplayBenchmark {
+
+    @Param({"AUTHOR_SELECTION_CHANGED", "COMMIT_SELECTION_CHANGED", "CHANGE_SELECTION_CHANGED", "ONTOLOGY_UPDATED",
+            "CHANGE_REVIEWED", "RESET"})
+    public LogDiffEvent event;
+
+    @Benchmark
+    public List<Change> getChangesToDisplay(DiffState state) {
+        return state.getDiff().getChangesToDisplay(event);
+    }
+}
@@ -0,0 +1,51 @@
+package org.protege.editor.owl.client.diff.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.protege.editor.owl.client.diff.model.Change;
+import org.protege.editor.owl.client.diff.model.ChangeId;
+import org.protege.editor.owl.client.diff.model.ConflictDetector;
+import org.protege.editor.owl.client.diff.model.SimpleConflictDetector;
+import org.semanticweb.owlapi.model.OWLClass;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of finding the conflicts of a change to the most frequently changed subject
+ *
+ * @author Rafael Gonçalves <br>
+ * Stanford Center for Biomedical Informatics Research
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ConflictDetectorBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class ConflictState extends DiffState {
+        private final ConflictDetector detector = new SimpleConflictDetector();
+        private List<Change> searchSpace;
+        private Change seed;
+
+        @Override
+        protected void prepare() {
+            searchSpace = new ArrayList<>();
+            for (OWLClass subject : history.getSubjects()) {
+                List<Change> subjectChanges = diff.getChangesForSubject(subject);
+                if (subjectChanges.size() > searchSpace.size()) {
+                    searchSpace = subjectChanges;
+                }
+            }
+            seed = searchSpace.get(searchSpace.size() - 1);
+        }
+    }
+
+    @Benchmark
+    public Set<ChangeId> getConflictingChanges(ConflictState state) {
+        return state.detector.getConflictingChanges(state.seed, state.searchSpace);
+    }
+}
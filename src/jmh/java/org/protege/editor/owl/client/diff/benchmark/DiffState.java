@@ -0,0 +1,93 @@
+package org.protege.editor.owl.client.diff.benchmark;
+
+import org.protege.editor.owl.client.diff.DiffFactory;
+import org.protege.editor.owl.client.diff.DiffFactoryImpl;
+import org.protege.editor.owl.client.diff.model.*;
+import org.openjdk.jmh.annotations.*;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.mockito.Mockito.*;
+
+/**
+ * Benchmark state holding a synthetic revision history and a log diff that has processed all of it
+ *
+ * @author Rafael Gonçalves <br>
+ * Stanford Center for Biomedical Informatics Research
+ */
+@State(Scope.Benchmark)
+public class DiffState {
+    private static final long SEED = 42;
+
+    @Param({"100", "1000", "10000"})
+    public int revisions;
+
+    @Param({"10"})
+    public int changesPerRevision;
+
+    @Param({"0.0", "1.0"})
+    public double subjectSkew;
+
+    @Param({"10"})
+    public int authors;
+
+    @Param({"map", "compact"})
+    public String store;
+
+    @Param({"false", "true"})
+    public boolean parallelDecoding;
+
+    /**
+     * Change identifier scheme of the change store: sequence numbers (the default) or time-based UUIDs
+     */
+    @Param({"sequential", "uuid"})
+    public String changeIds;
+
+    protected SyntheticHistory history;
+    protected LogDiffManager diffManager;
+    protected LogDiff diff;
+
+    @Setup(Level.Trial)
+    public final void setUp() throws OWLOntologyCreationException {
+        history = new SyntheticHistory(revisions, changesPerRevision, subjectSkew, authors, SEED);
+        diffManager = mock(LogDiffManager.class, withSettings().stubOnly());
+        when(diffManager.getVersionedOntologyDocument()).thenReturn(Optional.of(history.getVersionedOntologyDocument()));
+        diff = createDiff();
+        diff.initDiff();
+        // select the first author and a commit from the middle of the history
+        when(diffManager.getSelectedAuthor()).thenReturn(history.getAuthors().get(0));
+        List<Change> commitChanges = diff.getChangesForCommit(LogDiffManager.getDiffFactory().createCommitId(Integer.toString(revisions / 2)));
+        if (!commitChanges.isEmpty()) {
+            when(diffManager.getSelectedCommit()).thenReturn(commitChanges.get(0).getCommitMetadata());
+        }
+        prepare();
+    }
+
+    /**
+     * Prepare benchmark-specific state once the diff has been computed
+     */
+    protected void prepare() { }
+
+    /**
+     * Create a new log diff, which has not processed any revisions, over the synthetic history
+     *
+     * @return Log diff
+     */
+    public LogDiff createDiff() {
+        DiffFactory diffFactory = new DiffFactoryImpl(changeIds.equals("sequential"));
+        ChangeStore changeStore = (store.equals("compact") ? new CompactChangeStore(diffFactory) : new MapChangeStore(diffFactory));
+        LogDiff logDiff = new LogDiff(diffManager, history.getModelManager(), changeStore);
+        logDiff.setParallelDecoding(parallelDecoding);
+        return logDiff;
+    }
+
+    public LogDiff getDiff() {
+        return diff;
+    }
+
+    public SyntheticHistory getHistory() {
+        return history;
+    }
+}
@@ -0,0 +1,41 @@
+package org.protege.editor.owl.client.diff.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.protege.editor.owl.client.diff.model.LogDiff;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of computing the log diff of a revision history
+ *
+ * @author Rafael Gonçalves <br>
+ * Stanford Center for Biomedical Informatics Research
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class LogDiffBenchmark {
+
+    /**
+     * Process the whole history with a new log diff
+     */
+    @Benchmark
+    public LogDiff initDiff(DiffState state) {
+        LogDiff diff = state.createDiff();
+        diff.initDiff();
+        return diff;
+    }
+
+    /**
+     * Refresh a log diff that has already processed the whole history, as happens on every ontology edit
+     */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public LogDiff initDiffUpToDate(DiffState state) {
+        LogDiff diff = state.getDiff();
+        diff.initDiff();
+        return diff;
+    }
+}
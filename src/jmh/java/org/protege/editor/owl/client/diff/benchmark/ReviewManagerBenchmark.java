@@ -0,0 +1,47 @@
+package org.protege.editor.owl.client.diff.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.protege.editor.owl.client.diff.model.*;
+import org.semanticweb.owlapi.model.OWLOntologyChange;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of computing the OWL ontology changes that revert rejected changes
+ *
+ * @author Rafael Gonçalves <br>
+ * Stanford Center for Biomedical Informatics Research
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ReviewManagerBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class ReviewState extends DiffState {
+        @Param({"10"})
+        public int reviewedPercentage;
+
+        private ReviewManager reviewManager;
+
+        @Override
+        protected void prepare() {
+            reviewManager = new ReviewManagerImpl(diff);
+            int i = 0;
+            for (Change change : diff.getChangesForUser(LogDiffManager.ALL_AUTHORS)) {
+                if (i % 100 < reviewedPercentage) {
+                    reviewManager.setReviewStatus(change, (i % 2 == 0 ? ReviewStatus.REJECTED : ReviewStatus.ACCEPTED));
+                }
+                i++;
+            }
+        }
+    }
+
+    @Benchmark
+    public List<OWLOntologyChange> getReviewOntologyChanges(ReviewState state) {
+        return state.reviewManager.getReviewOntologyChanges();
+    }
+}
@@ -0,0 +1,207 @@
+package org.protege.editor.owl.client.diff.benchmark;
+
+import org.protege.editor.owl.client.diff.model.*;
+import org.protege.editor.owl.model.OWLModelManager;
+import org.protege.owl.server.api.ChangeHistory;
+import org.protege.owl.server.api.ChangeMetaData;
+import org.protege.owl.server.api.OntologyDocumentRevision;
+import org.protege.owl.server.api.UserId;
+import org.protege.owl.server.api.client.VersionedOntologyDocument;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.*;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.*;
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static org.mockito.Mockito.*;
+
+/**
+ * A synthetic, in-memory revision history of an ontology, along with stand-ins for the server and editor
+ * objects through which the log diff engine reads it. Revisions mix logical axiom additions and removals,
+ * annotation value replacements (which the diff aligns with their baseline) and custom changes. The subject
+ * of each change is drawn from a Zipf distribution, so a skew of 0 spreads changes uniformly over subjects
+ * while larger skews concentrate them on a few "hot" subjects
+ *
+ * @author Rafael Gonçalves <br>
+ * Stanford Center for Biomedical Informatics Research
+ */
+public class SyntheticHistory {
+    private static final String NAMESPACE = "http://protege.stanford.edu/benchmark#";
+    private static final long START_DATE = 1451606400000L; // 2016-01-01
+    private final OWLOntologyManager manager = OWLManager.createOWLOntologyManager();
+    private final OWLDataFactory df = manager.getOWLDataFactory();
+    private final OWLAnnotationProperty label = df.getRDFSLabel();
+    private final OwlOntologyChangeAnnotator annotator = new AxiomChangeAnnotator();
+    private final CustomChangeType customChangeType = new CustomChangeType("Rename", Optional.empty());
+    private final List<ChangeMetaData> metaData = new ArrayList<>();
+    private final List<List<OWLOntologyChange>> changes = new ArrayList<>();
+    private final List<UserId> authors = new ArrayList<>();
+    private final List<OWLClass> subjects = new ArrayList<>();
+    private final OWLOntology ontology;
+    private final ChangeHistory history;
+    private final VersionedOntologyDocument vont;
+    private final OWLModelManager modelManager;
+
+    /**
+     * Constructor
+     *
+     * @param revisions Number of revisions
+     * @param changesPerRevision    Number of OWL ontology changes per revision
+     * @param subjectSkew   Exponent of the Zipf distribution from which change subjects are drawn
+     * @param authorCount   Number of authors
+     * @param seed  Random seed
+     * @throws OWLOntologyCreationException if the ontology cannot be created
+     */
+    public SyntheticHistory(int revisions, int changesPerRevision, double subjectSkew, int authorCount, long seed)
+            throws OWLOntologyCreationException {
+        checkArgument(revisions > 0 && changesPerRevision > 0 && authorCount > 0 && subjectSkew >= 0);
+        ontology = manager.createOntology(IRI.create(NAMESPACE.substring(0, NAMESPACE.length() - 1)));
+        int subjectCount = Math.max(10, revisions * changesPerRevision / 10);
+        for (int i = 0; i < subjectCount; i++) {
+            OWLClass cls = df.getOWLClass(IRI.create(NAMESPACE + "C" + i));
+            subjects.add(cls);
+            manager.addAxiom(ontology, df.getOWLDeclarationAxiom(cls));
+        }
+        for (int i = 0; i < authorCount; i++) {
+            authors.add(new UserId("author" + i));
+        }
+        generate(revisions, changesPerRevision, createSubjectDistribution(subjectCount, subjectSkew), new Random(seed));
+        history = createHistory(0, revisions);
+        vont = mock(VersionedOntologyDocument.class, withSettings().stubOnly());
+        when(vont.getOntology()).thenReturn(ontology);
+        when(vont.getLocalHistory()).thenReturn(history);
+        modelManager = mock(OWLModelManager.class, withSettings().stubOnly());
+        when(modelManager.getActiveOntology()).thenReturn(ontology);
+        when(modelManager.getOWLOntologyManager()).thenReturn(manager);
+    }
+
+    private void generate(int revisions, int changesPerRevision, double[] subjectDistribution, Random random) {
+        Map<OWLClass, OWLAnnotationAssertionAxiom> labels = new HashMap<>();
+        Map<OWLClass, List<OWLSubClassOfAxiom>> superClasses = new HashMap<>();
+        for (int rev = 0; rev < revisions; rev++) {
+            List<OWLOntologyChange> revisionChanges = new ArrayList<>();
+            while (revisionChanges.size() < changesPerRevision) {
+                OWLClass subject = subjects.get(sample(subjectDistribution, random));
+                int kind = random.nextInt(10);
+                if (kind < 4) { // logical addition
+                    OWLSubClassOfAxiom axiom = df.getOWLSubClassOfAxiom(subject, subjects.get(random.nextInt(subjects.size())));
+                    superClasses.computeIfAbsent(subject, s -> new ArrayList<>()).add(axiom);
+                    revisionChanges.add(new AddAxiom(ontology, axiom));
+                } else if (kind < 6 && superClasses.containsKey(subject) && !superClasses.get(subject).isEmpty()) { // logical removal
+                    List<OWLSubClassOfAxiom> axioms = superClasses.get(subject);
+                    revisionChanges.add(new RemoveAxiom(ontology, axioms.remove(random.nextInt(axioms.size()))));
+                } else if (kind < 9) { // annotation value replacement
+                    OWLAnnotationAssertionAxiom axiom = df.getOWLAnnotationAssertionAxiom(label, subject.getIRI(),
+                            df.getOWLLiteral("label " + rev + "." + revisionChanges.size()));
+                    OWLAnnotationAssertionAxiom previous = labels.put(subject, axiom);
+                    if (previous != null) {
+                        revisionChanges.add(new RemoveAxiom(ontology, previous));
+                    }
+                    revisionChanges.add(new AddAxiom(ontology, axiom));
+                } else { // custom change
+                    OWLSubClassOfAxiom axiom = df.getOWLSubClassOfAxiom(subject, df.getOWLThing());
+                    revisionChanges.addAll(annotator.getAnnotatedChange(Collections.singletonList(new AddAxiom(ontology, axiom)),
+                            new RevisionTagImpl(Integer.toString(rev)), subject, customChangeType, Optional.of(label), Optional.of("C" + rev)));
+                }
+            }
+            ChangeMetaData revisionMetaData = mock(ChangeMetaData.class, withSettings().stubOnly());
+            when(revisionMetaData.getUserId()).thenReturn(authors.get(random.nextInt(authors.size())));
+            when(revisionMetaData.getDate()).thenReturn(new Date(START_DATE + rev * 60000L));
+            when(revisionMetaData.getCommitComment()).thenReturn("Revision " + rev);
+            metaData.add(revisionMetaData);
+            changes.add(revisionChanges);
+        }
+        changes.forEach(manager::applyChanges);
+    }
+
+    private static double[] createSubjectDistribution(int subjectCount, double skew) {
+        double[] cumulative = new double[subjectCount];
+        double total = 0;
+        for (int i = 0; i < subjectCount; i++) {
+            total += 1 / Math.pow(i + 1, skew);
+            cumulative[i] = total;
+        }
+        for (int i = 0; i < subjectCount; i++) {
+            cumulative[i] /= total;
+        }
+        return cumulative;
+    }
+
+    private static int sample(double[] cumulative, Random random) {
+        int i = Arrays.binarySearch(cumulative, random.nextDouble());
+        return Math.min(i >= 0 ? i : -i - 1, cumulative.length - 1);
+    }
+
+    /**
+     * Create a change history over the revisions in the given range. Histories are created for every decoded
+     * revision, so they are dynamic proxies rather than mocks
+     */
+    private ChangeHistory createHistory(int start, int end) {
+        InvocationHandler handler = (proxy, method, args) -> invoke(proxy, method, args, start, end);
+        return (ChangeHistory) Proxy.newProxyInstance(ChangeHistory.class.getClassLoader(), new Class<?>[]{ChangeHistory.class}, handler);
+    }
+
+    private Object invoke(Object proxy, Method method, Object[] args, int start, int end) {
+        switch (method.getName()) {
+            case "getStartRevision":
+                return getRevision(start);
+            case "getEndRevision":
+                return getRevision(end);
+            case "getMetaData":
+                int revision = getRevisionNumber((OntologyDocumentRevision) args[0]);
+                return (revision >= start && revision < end ? metaData.get(revision) : null);
+            case "cropChanges":
+                int cropStart = Math.max(start, getRevisionNumber((OntologyDocumentRevision) args[0]));
+                int cropEnd = Math.min(end, getRevisionNumber((OntologyDocumentRevision) args[1]));
+                return createHistory(cropStart, Math.max(cropStart, cropEnd));
+            case "getChanges":
+                List<OWLOntologyChange> rangeChanges = new ArrayList<>();
+                changes.subList(start, end).forEach(rangeChanges::addAll);
+                return rangeChanges;
+            case "equals":
+                return proxy == args[0];
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "toString":
+                return "SyntheticHistory[" + start + ", " + end + ")";
+            default:
+                throw new UnsupportedOperationException(method.getName());
+        }
+    }
+
+    private static OntologyDocumentRevision getRevision(int revision) {
+        return OntologyDocumentRevision.START_REVISION.add(revision);
+    }
+
+    private static int getRevisionNumber(OntologyDocumentRevision revision) {
+        return revision.getRevisionDifferenceFrom(OntologyDocumentRevision.START_REVISION);
+    }
+
+    public OWLOntology getOntology() {
+        return ontology;
+    }
+
+    public ChangeHistory getHistory() {
+        return history;
+    }
+
+    public VersionedOntologyDocument getVersionedOntologyDocument() {
+        return vont;
+    }
+
+    public OWLModelManager getModelManager() {
+        return modelManager;
+    }
+
+    public List<UserId> getAuthors() {
+        return authors;
+    }
+
+    public List<OWLClass> getSubjects() {
+        return subjects;
+    }
+}
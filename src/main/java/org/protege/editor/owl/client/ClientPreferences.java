@@ -18,6 +18,18 @@ public class ClientPreferences {
 	
 	private static final String LAST_SERVER_LOCATION = "LAST_SERVER_LOCATION";
 	
+	private static final String PARALLEL_DIFF_DECODING = "PARALLEL_DIFF_DECODING";
+	
+	private static final String COMPACT_DIFF_STORE = "COMPACT_DIFF_STORE";
+	
+	private static final String DIFF_REFRESH_DELAY = "DIFF_REFRESH_DELAY";
+	
+	private static final String HISTORY_PAGE_SIZE = "HISTORY_PAGE_SIZE";
+	
+	private static final String SERVER_WORKER_THREADS = "SERVER_WORKER_THREADS";
+
+	private static final String AUTO_UPDATE_INTERVAL = "AUTO_UPDATE_INTERVAL";
+	
     public static synchronized ClientPreferences getInstance() {
         if(instance == null) {
             instance = new ClientPreferences();
@@ -56,6 +68,66 @@ public class ClientPreferences {
 		prefs.putString(LAST_SERVER_LOCATION, lastServerLocation);
 	}
 
+	public boolean isParallelDiffDecoding() {
+		Preferences prefs = getPreferences();
+		return prefs.getBoolean(PARALLEL_DIFF_DECODING, Runtime.getRuntime().availableProcessors() > 1);
+	}
+	
+	public void setParallelDiffDecoding(boolean parallelDiffDecoding) {
+		Preferences prefs = getPreferences();
+		prefs.putBoolean(PARALLEL_DIFF_DECODING, parallelDiffDecoding);
+	}
+
+	public boolean isCompactDiffStore() {
+		Preferences prefs = getPreferences();
+		return prefs.getBoolean(COMPACT_DIFF_STORE, false);
+	}
+	
+	public void setCompactDiffStore(boolean compactDiffStore) {
+		Preferences prefs = getPreferences();
+		prefs.putBoolean(COMPACT_DIFF_STORE, compactDiffStore);
+	}
+
+	public int getDiffRefreshDelay() {
+		Preferences prefs = getPreferences();
+		return prefs.getInt(DIFF_REFRESH_DELAY, 500);
+	}
+	
+	public void setDiffRefreshDelay(int diffRefreshDelay) {
+		Preferences prefs = getPreferences();
+		prefs.putInt(DIFF_REFRESH_DELAY, diffRefreshDelay);
+	}
+
+	public int getHistoryPageSize() {
+		Preferences prefs = getPreferences();
+		return prefs.getInt(HISTORY_PAGE_SIZE, 100);
+	}
+	
+	public void setHistoryPageSize(int historyPageSize) {
+		Preferences prefs = getPreferences();
+		prefs.putInt(HISTORY_PAGE_SIZE, historyPageSize);
+	}
+
+	public int getServerWorkerThreads() {
+		Preferences prefs = getPreferences();
+		return prefs.getInt(SERVER_WORKER_THREADS, 4);
+	}
+	
+	public void setServerWorkerThreads(int serverWorkerThreads) {
+		Preferences prefs = getPreferences();
+		prefs.putInt(SERVER_WORKER_THREADS, serverWorkerThreads);
+	}
+
+	public int getAutoUpdateInterval() {
+		Preferences prefs = getPreferences();
+		return prefs.getInt(AUTO_UPDATE_INTERVAL, 15);
+	}
+	
+	public void setAutoUpdateInterval(int autoUpdateInterval) {
+		Preferences prefs = getPreferences();
+		prefs.putInt(AUTO_UPDATE_INTERVAL, autoUpdateInterval);
+	}
+
 	protected static Preferences getPreferences() {
         return PreferencesManager.getInstance().getApplicationPreferences(CLIENT_PREFERENCES);
     }
@@ -1,17 +1,16 @@
 package org.protege.editor.owl.client.action;
 
-import java.util.List;
-
 import javax.swing.table.AbstractTableModel;
 
-import org.protege.editor.owl.client.panel.ChangeListTableModel.Column;
-import org.protege.owl.server.api.RevisionPointer;
-import org.protege.owl.server.api.client.Client;
+import org.protege.editor.owl.client.connect.ClientStatus;
+import org.protege.editor.owl.client.connect.ClientStatusListener;
+import org.protege.editor.owl.client.connect.ClientStatusService;
 import org.protege.owl.server.api.client.VersionedOntologyDocument;
-import org.protege.owl.server.api.exception.OWLServerException;
-import org.protege.owl.server.util.ClientUtilities;
-import org.semanticweb.owlapi.model.OWLOntologyChange;
 
+/**
+ * Shows the status snapshot of a versioned ontology taken by the {@link ClientStatusService}. The model
+ * never contacts the server itself, and updates when a new snapshot becomes available
+ */
 public class ClientStatusTableModel extends AbstractTableModel {
 	private static final long serialVersionUID = -465483270258124763L;
 
@@ -22,27 +21,26 @@ public class ClientStatusTableModel extends AbstractTableModel {
 	public enum Row {
 		SERVER_DOCUMENT("Server document:") {
 			@Override
-			public String evaluate(Client client, VersionedOntologyDocument vont) {
-				return vont.getServerDocument().getServerLocation().toString();
+			public String getValue(ClientStatus status) {
+				return status.getServerDocument();
 			}
 		},
 		CLIENT_REVISION("Local revision:") {
 			@Override
-			public String evaluate(Client client, VersionedOntologyDocument vont) {
-				return vont.getRevision().toString();
+			public String getValue(ClientStatus status) {
+				return status.getLocalRevision().toString();
 			}
 		},
 		SERVER_REVISION("Latest server revision:") {
 			@Override
-			public String evaluate(Client client, VersionedOntologyDocument vont) throws OWLServerException {
-				return client.evaluateRevisionPointer(vont.getServerDocument(), RevisionPointer.HEAD_REVISION).toString();
+			public String getValue(ClientStatus status) {
+				return status.isFailed() ? "Error: " + status.getError() : status.getServerRevision().toString();
 			}
 		},
 		UNCOMMITTED_CHANGES("# of uncommitted changes:") {
 			@Override
-			public String evaluate(Client client, VersionedOntologyDocument vont) throws OWLServerException {
-				List<OWLOntologyChange> changes = ClientUtilities.getUncommittedChanges(client, vont);
-				return "" + changes.size();
+			public String getValue(ClientStatus status) {
+				return status.isFailed() ? "Error: " + status.getError() : "" + status.getUncommittedChangeCount();
 			}
 		}
 		;
@@ -56,15 +54,28 @@ public class ClientStatusTableModel extends AbstractTableModel {
 		public String getName() {
 			return name;
 		}
-		public abstract Object evaluate(Client client, VersionedOntologyDocument vont) throws OWLServerException;
+		public abstract Object getValue(ClientStatus status);
 	}
 	
-	private Client client;
+	private ClientStatusService statusService;
 	private VersionedOntologyDocument vont;
+	private ClientStatusListener listener = new ClientStatusListener() {
+		@Override
+		public void statusChanged(VersionedOntologyDocument changed, ClientStatus status) {
+			if (changed == vont) {
+				fireTableDataChanged();
+			}
+		}
+	};
 	
-	public ClientStatusTableModel(Client client, VersionedOntologyDocument vont) {
-		this.client = client;
+	public ClientStatusTableModel(ClientStatusService statusService, VersionedOntologyDocument vont) {
+		this.statusService = statusService;
 		this.vont   = vont;
+		statusService.addListener(listener);
+	}
+
+	public void dispose() {
+		statusService.removeListener(listener);
 	}
 
 	@Override
@@ -84,18 +95,14 @@ public class ClientStatusTableModel extends AbstractTableModel {
 		}
 		Row row    = Row.values()[rowIndex];
 		Column column = Column.values()[columnIndex];
-		try {
-			switch (column) {
-			case NAME:
-				return row.getName();
-			case VALUE:
-				return row.evaluate(client, vont);
-			default:
-				return "Unknown column type";
-			}
-		}
-		catch (OWLServerException e) {
-			return "Error: " + e.getMessage();
+		switch (column) {
+		case NAME:
+			return row.getName();
+		case VALUE:
+			ClientStatus status = statusService.getStatus(vont);
+			return status != null ? row.getValue(status) : "Retrieving...";
+		default:
+			return "Unknown column type";
 		}
 	}
 
@@ -67,7 +67,7 @@ public class CommitAction extends ProtegeOWLAction {
             Client client = connectionManager.createClient(ontology);
 
             // TODO MetaData should not accept null commit comment..
-            connectionManager.getSingleThreadExecutorService().submit(new DoCommit(client, vont, (!commitComment.isEmpty() ? commitComment : "")));
+            connectionManager.getScheduler().submit(vont, new DoCommit(client, vont, (!commitComment.isEmpty() ? commitComment : "")));
         }
         catch (UserDeclinedAuthenticationException udae) {
             ; // ignore this because the user knows that he didn't want to authenticate
@@ -96,6 +96,8 @@ public class CommitAction extends ProtegeOWLAction {
             ChangeMetaData metaData = new ChangeMetaData(commitcomment);
             try {
                 ClientUtilities.commit(client, metaData, vont);
+                connectionManager.getStatusService().invalidate(vont);
+                connectionManager.saveHistoryInBackground(vont);
             }
             catch (OWLServerException ose) {
             	handleError(ose);
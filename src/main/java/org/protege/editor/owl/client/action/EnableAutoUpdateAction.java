@@ -1,8 +1,11 @@
 package org.protege.editor.owl.client.action;
 
 import org.protege.editor.core.ui.error.ErrorLogPanel;
+import org.protege.editor.owl.client.ClientPreferences;
 import org.protege.editor.owl.client.connect.ServerConnectionManager;
 import org.protege.editor.owl.ui.action.ProtegeOWLAction;
+import org.protege.owl.server.api.OntologyDocumentRevision;
+import org.protege.owl.server.api.RevisionPointer;
 import org.protege.owl.server.api.client.Client;
 import org.protege.owl.server.api.client.VersionedOntologyDocument;
 import org.protege.owl.server.api.exception.UserDeclinedAuthenticationException;
@@ -11,13 +14,25 @@ import org.semanticweb.owlapi.model.OWLOntology;
 
 import javax.swing.*;
 import java.awt.event.ActionEvent;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
 
+/**
+ * Keeps the active ontologies up to date with the server. Each check asks the server for its head revision
+ * and only runs an update for ontologies that are behind. The checks are {@link ClientPreferences#getAutoUpdateInterval()}
+ * seconds apart, and back off to up to {@link #MAX_BACKOFF} times that interval while the server has nothing new.
+ * The checks wait for the updates, so they run on a timer thread of their own, and stop once the connection
+ * manager has shut down its scheduler.
+ */
 public class EnableAutoUpdateAction extends ProtegeOWLAction {
 	private static final long serialVersionUID = 1098490684799516207L;
-	private ScheduledFuture<?> autoUpdate;
+	public static final int MAX_BACKOFF = 8;
+	private AutoUpdate autoUpdate;
 	private JCheckBoxMenuItem checkBoxMenuItem;
 	private ServerConnectionManager connectionManager;
 
@@ -31,7 +46,10 @@ public class EnableAutoUpdateAction extends ProtegeOWLAction {
 
 	@Override
 	public void dispose() throws Exception {
-
+	    if (autoUpdate != null) {
+	        autoUpdate.cancel();
+	        autoUpdate = null;
+	    }
 	}
 
 	public void setMenuItem(JMenuItem menu) {
@@ -41,41 +59,120 @@ public class EnableAutoUpdateAction extends ProtegeOWLAction {
 	@Override
 	public void actionPerformed(ActionEvent e) {
 	    if (autoUpdate != null) {
-	        autoUpdate.cancel(false);
+	        autoUpdate.cancel();
 	        autoUpdate = null;
 	    }
 	    else {
-	        ScheduledExecutorService executor = connectionManager.getSingleThreadExecutorService();
-	        autoUpdate = executor.scheduleWithFixedDelay(new AutoUpdate(), 15, 15, TimeUnit.SECONDS); // TODO: change this so that the sync delay value is fetched from the (new APIs) client configuration
+	        autoUpdate = new AutoUpdate(Math.max(1, ClientPreferences.getInstance().getAutoUpdateInterval()));
+	        autoUpdate.start();
 	    }
 	}
 	
 	private class AutoUpdate implements Runnable {
+	    private final long interval; // seconds
+	    private long delay;
 	    private boolean lastRunSuccessful = true;
+	    private boolean cancelled;
+	    private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+	        @Override
+	        public Thread newThread(Runnable r) {
+	            Thread th = new Thread(r, "Auto Update");
+	            th.setDaemon(true);
+	            return th;
+	        }
+	    });
+	    
+	    public AutoUpdate(long interval) {
+	        this.interval = interval;
+	        this.delay = interval;
+	    }
+	    
+	    public synchronized void start() {
+	        if (!cancelled && !timer.isShutdown()) {
+	            timer.schedule(this, delay, TimeUnit.SECONDS);
+	        }
+	    }
+	    
+	    /**
+	     * Stop checking, dropping the pending check and interrupting a running one
+	     */
+	    public synchronized void cancel() {
+	        cancelled = true;
+	        timer.shutdownNow();
+	    }
+	    
+	    private synchronized boolean isCancelled() {
+	        return cancelled;
+	    }
 	    
 	    @Override
 	    public void run() {
+            if (connectionManager.getScheduler().isShutdown()) {
+                cancel(); // the connection manager has been disposed
+                return;
+            }
             try {
+                boolean updated = false;
                 for (OWLOntology ontology : getOWLModelManager().getActiveOntologies()) {
-                    VersionedOntologyDocument vont = connectionManager.getVersionedOntology(ontology);
+                    final VersionedOntologyDocument vont = connectionManager.getVersionedOntology(ontology);
                     if (vont != null) {
-                        Client client = connectionManager.createClient(vont.getServerDocument().getServerLocation());
-                        ClientUtilities.update(client, vont);
+                        // run the update in turn with the other operations on the ontology, and wait for it
+                        try {
+                            updated |= connectionManager.getScheduler().submit(vont, new Callable<Boolean>() {
+                                @Override
+                                public Boolean call() throws Exception {
+                                    Client client = connectionManager.createClient(vont.getServerDocument().getServerLocation());
+                                    OntologyDocumentRevision head = client.evaluateRevisionPointer(vont.getServerDocument(), RevisionPointer.HEAD_REVISION);
+                                    if (head.compareTo(vont.getRevision()) <= 0) {
+                                        return false;
+                                    }
+                                    Lock changeLock = connectionManager.getScheduler().getChangeLock();
+                                    changeLock.lock();
+                                    try {
+                                        ClientUtilities.update(client, vont);
+                                    }
+                                    finally {
+                                        changeLock.unlock();
+                                    }
+                                    connectionManager.getStatusService().invalidate(vont);
+                                    connectionManager.saveHistoryInBackground(vont);
+                                    return true;
+                                }
+                            }).get();
+                        }
+                        catch (ExecutionException ee) {
+                            throw ee.getCause();
+                        }
                     }
                 }
+                // check again soon after a change, less and less often while nothing happens
+                delay = (updated ? interval : Math.min(delay * 2, interval * MAX_BACKOFF));
                 lastRunSuccessful = true;
             }
             catch (UserDeclinedAuthenticationException udae) {
-                autoUpdate.cancel(false);
-                autoUpdate = null;
-                checkBoxMenuItem.setSelected(false);
+                cancel();
+                SwingUtilities.invokeLater(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (autoUpdate == AutoUpdate.this) {
+                            autoUpdate = null;
+                            checkBoxMenuItem.setSelected(false);
+                        }
+                    }
+                });
             }
             catch (Throwable t) {
+                if (isCancelled() || connectionManager.getScheduler().isShutdown()) {
+                    cancel(); // interrupted by a cancel, or the connection manager was disposed meanwhile
+                    return;
+                }
                 if (!lastRunSuccessful) {
 					ErrorLogPanel.showErrorDialog(t);
                 }
                 lastRunSuccessful = false;
+                delay = interval;
             }
+            start();
 	    }
 	}
 
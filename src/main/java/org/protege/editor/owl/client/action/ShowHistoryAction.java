@@ -1,16 +1,14 @@
 package org.protege.editor.owl.client.action;
 
 import org.protege.editor.core.ui.error.ErrorLogPanel;
+import org.protege.editor.owl.client.ClientPreferences;
 import org.protege.editor.owl.client.connect.ServerConnectionManager;
 import org.protege.editor.owl.client.panel.ChangeHistoryPanel;
+import org.protege.editor.owl.client.panel.PagedChangeHistory;
 import org.protege.editor.owl.ui.action.ProtegeOWLAction;
-import org.protege.owl.server.api.ChangeHistory;
-import org.protege.owl.server.api.OntologyDocumentRevision;
-import org.protege.owl.server.api.RevisionPointer;
 import org.protege.owl.server.api.client.Client;
 import org.protege.owl.server.api.client.VersionedOntologyDocument;
 import org.protege.owl.server.api.exception.UserDeclinedAuthenticationException;
-import org.protege.owl.server.util.ClientUtilities;
 import org.semanticweb.owlapi.model.OWLOntology;
 
 import javax.swing.*;
@@ -37,8 +35,8 @@ public class ShowHistoryAction extends ProtegeOWLAction {
             VersionedOntologyDocument vont = connectionManager.getVersionedOntology(ontology);
             Client client = connectionManager.createClient(ontology);
             if (vont != null) {
-                ChangeHistory changes = ClientUtilities.getChanges(client, vont, OntologyDocumentRevision.START_REVISION.asPointer(), RevisionPointer.HEAD_REVISION);
-                ChangeHistoryPanel changeHistoryPanel = new ChangeHistoryPanel(getOWLEditorKit(), changes);
+                PagedChangeHistory history = new PagedChangeHistory(connectionManager, client, vont, ClientPreferences.getInstance().getHistoryPageSize());
+                ChangeHistoryPanel changeHistoryPanel = new ChangeHistoryPanel(getOWLEditorKit(), history);
                 changeHistoryPanel.setLocationRelativeTo(getOWLWorkspace());
                 changeHistoryPanel.setVisible(true);
             }
@@ -1,21 +1,22 @@
 package org.protege.editor.owl.client.action;
 
 import org.protege.editor.core.ui.error.ErrorLogPanel;
+import org.protege.editor.owl.client.connect.ClientStatusService;
 import org.protege.editor.owl.client.connect.ServerConnectionManager;
 import org.protege.editor.owl.model.event.OWLModelManagerChangeEvent;
 import org.protege.editor.owl.model.event.OWLModelManagerListener;
 import org.protege.editor.owl.ui.UIHelper;
 import org.protege.editor.owl.ui.action.ProtegeOWLAction;
-import org.protege.owl.server.api.RevisionPointer;
 import org.protege.owl.server.api.client.Client;
 import org.protege.owl.server.api.client.VersionedOntologyDocument;
 import org.protege.owl.server.api.exception.UserDeclinedAuthenticationException;
-import org.protege.owl.server.util.ClientUtilities;
 import org.semanticweb.owlapi.model.OWLOntology;
 
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
 
 public class ShowStatusAction extends ProtegeOWLAction {
     private static final long serialVersionUID = 4601012273632698091L;
@@ -55,23 +56,27 @@ public class ShowStatusAction extends ProtegeOWLAction {
             final OWLOntology ontology = getOWLEditorKit().getModelManager().getActiveOntology();
             final VersionedOntologyDocument vont = connectionManager.getVersionedOntology(ontology);
             Client client = connectionManager.createClient(ontology);
+            ClientStatusService statusService = connectionManager.getStatusService();
+            final ClientStatusTableModel model = new ClientStatusTableModel(statusService, vont);
+            statusService.refresh(client, vont);
             JDialog dialog = new JDialog();
             dialog.setTitle("Client status");
             dialog.setLocationRelativeTo(getOWLWorkspace());
+            dialog.setDefaultCloseOperation(WindowConstants.DISPOSE_ON_CLOSE);
+            dialog.addWindowListener(new WindowAdapter() {
+                @Override
+                public void windowClosed(WindowEvent e) {
+                    model.dispose();
+                }
+            });
             
-            JPanel panel = new JPanel(new GridLayout(0,2));
-            
-            panel.add(new JLabel("Server Document:"));
-            panel.add(new JLabel(vont.getServerDocument().getServerLocation().toString()));
-            
-            panel.add(new JLabel("Local Revision:"));
-            panel.add(new JLabel(vont.getRevision().toString()));
-            
-            panel.add(new JLabel("Latest Server Revision:"));
-            panel.add(new JLabel(client.evaluateRevisionPointer(vont.getServerDocument(), RevisionPointer.HEAD_REVISION).toString()));
-            
-            panel.add(new JLabel("# of uncommitted changes:"));
-            panel.add(new JLabel("" + ClientUtilities.getUncommittedChanges(client, vont).size()));
+            JTable table = new JTable(model);
+            table.setTableHeader(null);
+            table.setShowGrid(false);
+            table.setFocusable(false);
+            table.setRowSelectionAllowed(false);
+            JPanel panel = new JPanel(new BorderLayout());
+            panel.add(table, BorderLayout.CENTER);
             
             dialog.getContentPane().setLayout(new BorderLayout());
             dialog.getContentPane().add(panel, BorderLayout.CENTER);
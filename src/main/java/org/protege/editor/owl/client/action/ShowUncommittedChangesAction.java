@@ -2,9 +2,9 @@ package org.protege.editor.owl.client.action;
 
 import org.protege.editor.core.ui.error.ErrorLogPanel;
 import org.protege.editor.owl.client.connect.ServerConnectionManager;
+import org.protege.editor.owl.client.ui.CachingOWLCellRenderer;
 import org.protege.editor.owl.client.panel.ChangeListTableModel;
 import org.protege.editor.owl.ui.action.ProtegeOWLAction;
-import org.protege.editor.owl.ui.renderer.OWLCellRenderer;
 import org.protege.owl.server.api.client.Client;
 import org.protege.owl.server.api.client.VersionedOntologyDocument;
 import org.protege.owl.server.api.exception.UserDeclinedAuthenticationException;
@@ -72,7 +72,7 @@ public class ShowUncommittedChangesAction extends ProtegeOWLAction {
 		}
         ChangeListTableModel tableModel = new ChangeListTableModel(uncommitted);
         JTable table = new JTable(tableModel);
-        table.setDefaultRenderer(OWLObject.class, new OWLCellRenderer(getOWLEditorKit()));
+        table.setDefaultRenderer(OWLObject.class, new CachingOWLCellRenderer(getOWLEditorKit()));
         JScrollPane pane = new JScrollPane(table);
         JDialog dialog = new JDialog((Frame) SwingUtilities.getAncestorOfClass(Frame.class, getOWLWorkspace()));
         dialog.setTitle("Uncommitted changes for " + shortOntologyName);
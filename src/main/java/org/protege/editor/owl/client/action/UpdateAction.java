@@ -13,6 +13,7 @@ import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.util.concurrent.Future;
+import java.util.concurrent.locks.Lock;
 
 public class UpdateAction extends ProtegeOWLAction {
 
@@ -39,7 +40,7 @@ public class UpdateAction extends ProtegeOWLAction {
             return;
 	    }
 	    @SuppressWarnings("unused")
-        Future<?> ret = connectionManager.getSingleThreadExecutorService().submit(new DoUpdate(vont));
+        Future<?> ret = connectionManager.getScheduler().submit(vont, new DoUpdate(vont));
 	    // if you wait here with ret.get(), then Protege will deadlock because he needs the UI thread to modify the ontology.
 	}
 	
@@ -55,7 +56,16 @@ public class UpdateAction extends ProtegeOWLAction {
 	        try {
 	            OWLOntology ontology = vont.getOntology();
 	            Client client = connectionManager.createClient(ontology);
-	            ClientUtilities.update(client, vont);
+	            Lock changeLock = connectionManager.getScheduler().getChangeLock();
+	            changeLock.lock();
+	            try {
+	                ClientUtilities.update(client, vont);
+	            }
+	            finally {
+	                changeLock.unlock();
+	            }
+	            connectionManager.getStatusService().invalidate(vont);
+	            connectionManager.saveHistoryInBackground(vont);
 	        }
 	        catch (OWLServerException ioe) {
 				ErrorLogPanel.showErrorDialog(ioe);
@@ -0,0 +1,72 @@
+package org.protege.editor.owl.client.connect;
+
+import org.protege.owl.server.api.OntologyDocumentRevision;
+
+/**
+ * A snapshot of the status of a versioned ontology with respect to its server document, gathered in a
+ * single background pass by the {@link ClientStatusService}
+ */
+public class ClientStatus {
+	private final String serverDocument;
+	private final OntologyDocumentRevision localRevision;
+	private final OntologyDocumentRevision serverRevision;
+	private final int uncommittedChangeCount;
+	private final String error;
+	private final long timestamp;
+
+	private ClientStatus(String serverDocument, OntologyDocumentRevision localRevision, OntologyDocumentRevision serverRevision,
+			int uncommittedChangeCount, String error, long timestamp) {
+		this.serverDocument = serverDocument;
+		this.localRevision = localRevision;
+		this.serverRevision = serverRevision;
+		this.uncommittedChangeCount = uncommittedChangeCount;
+		this.error = error;
+		this.timestamp = timestamp;
+	}
+
+	public static ClientStatus create(String serverDocument, OntologyDocumentRevision localRevision,
+			OntologyDocumentRevision serverRevision, int uncommittedChangeCount) {
+		return new ClientStatus(serverDocument, localRevision, serverRevision, uncommittedChangeCount, null, System.currentTimeMillis());
+	}
+
+	public static ClientStatus failed(String serverDocument, OntologyDocumentRevision localRevision, String error) {
+		return new ClientStatus(serverDocument, localRevision, null, -1, error, System.currentTimeMillis());
+	}
+
+	public String getServerDocument() {
+		return serverDocument;
+	}
+
+	public OntologyDocumentRevision getLocalRevision() {
+		return localRevision;
+	}
+
+	/**
+	 * Get the latest server revision, or null if the server could not be reached
+	 */
+	public OntologyDocumentRevision getServerRevision() {
+		return serverRevision;
+	}
+
+	/**
+	 * Get the number of uncommitted changes, or -1 if the server could not be reached
+	 */
+	public int getUncommittedChangeCount() {
+		return uncommittedChangeCount;
+	}
+
+	public boolean isFailed() {
+		return error != null;
+	}
+
+	public String getError() {
+		return error;
+	}
+
+	/**
+	 * Get the time at which the snapshot was taken, in milliseconds since the epoch
+	 */
+	public long getTimestamp() {
+		return timestamp;
+	}
+}
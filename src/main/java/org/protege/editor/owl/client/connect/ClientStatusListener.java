@@ -0,0 +1,12 @@
+package org.protege.editor.owl.client.connect;
+
+import org.protege.owl.server.api.client.VersionedOntologyDocument;
+
+public interface ClientStatusListener {
+
+	/**
+	 * Called on the event dispatch thread when a new status snapshot of a versioned ontology is available, or
+	 * with a null status when the last snapshot has been invalidated
+	 */
+	void statusChanged(VersionedOntologyDocument vont, ClientStatus status);
+}
@@ -0,0 +1,171 @@
+package org.protege.editor.owl.client.connect;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.swing.SwingUtilities;
+
+import org.protege.owl.server.api.OntologyDocumentRevision;
+import org.protege.owl.server.api.RevisionPointer;
+import org.protege.owl.server.api.client.Client;
+import org.protege.owl.server.api.client.VersionedOntologyDocument;
+import org.protege.owl.server.api.exception.OWLServerException;
+import org.protege.owl.server.util.ClientUtilities;
+
+/**
+ * Gathers the status of versioned ontologies (server head, local revision and number of uncommitted changes)
+ * in one background pass, and caches it for a short while. Readers get the cached snapshot without blocking,
+ * and are notified on the event dispatch thread when a fresh snapshot is available. A snapshot that is
+ * invalidated, e.g., by a commit, an update or a local edit, is taken again straight away while anyone is
+ * listening
+ */
+public class ClientStatusService {
+	public static final long TIME_TO_LIVE = 10000; // milliseconds
+
+	private final OntologyTaskScheduler scheduler;
+	private final Map<VersionedOntologyDocument, ClientStatus> snapshots = new IdentityHashMap<VersionedOntologyDocument, ClientStatus>();
+	private final Map<VersionedOntologyDocument, Client> clients = new IdentityHashMap<VersionedOntologyDocument, Client>(); // last used to take a snapshot
+	private final Set<VersionedOntologyDocument> pending = new HashSet<VersionedOntologyDocument>();
+	private final Set<VersionedOntologyDocument> stale = new HashSet<VersionedOntologyDocument>(); // invalidated while pending
+	private final List<ClientStatusListener> listeners = new ArrayList<ClientStatusListener>();
+
+	public ClientStatusService(OntologyTaskScheduler scheduler) {
+		this.scheduler = scheduler;
+	}
+
+	/**
+	 * Get the last status snapshot of the given versioned ontology, which may be out of date
+	 *
+	 * @return The snapshot, or null if none has been taken yet
+	 */
+	public synchronized ClientStatus getStatus(VersionedOntologyDocument vont) {
+		return snapshots.get(vont);
+	}
+
+	/**
+	 * Take a new status snapshot of the given versioned ontology in the background, unless the last one is
+	 * younger than {@link #TIME_TO_LIVE} or one is already being taken
+	 */
+	public void refresh(Client client, VersionedOntologyDocument vont) {
+		refresh(client, vont, false);
+	}
+
+	/**
+	 * Take a new status snapshot of the given versioned ontology in the background, or once the one that is
+	 * being taken is done
+	 */
+	public void forceRefresh(Client client, VersionedOntologyDocument vont) {
+		refresh(client, vont, true);
+	}
+
+	private void refresh(final Client client, final VersionedOntologyDocument vont, boolean force) {
+		synchronized (this) {
+			clients.put(vont, client);
+			ClientStatus status = snapshots.get(vont);
+			if (pending.contains(vont)) {
+				if (force) {
+					stale.add(vont); // the snapshot being taken may predate the caller's changes
+				}
+				return;
+			}
+			if (!force && status != null && System.currentTimeMillis() - status.getTimestamp() < TIME_TO_LIVE) {
+				return;
+			}
+			pending.add(vont);
+		}
+		scheduler.submit(vont, new Runnable() {
+			@Override
+			public void run() {
+				ClientStatus status = takeSnapshot(client, vont);
+				boolean outdated, retake;
+				synchronized (ClientStatusService.this) {
+					pending.remove(vont);
+					outdated = stale.remove(vont);
+					retake = outdated && !listeners.isEmpty();
+					if (!outdated) {
+						snapshots.put(vont, status);
+					}
+				}
+				if (retake) {
+					refresh(client, vont, true);
+				}
+				else if (!outdated) {
+					fireStatusChanged(vont, status);
+				}
+			}
+		});
+	}
+
+	private ClientStatus takeSnapshot(Client client, VersionedOntologyDocument vont) {
+		String serverDocument = vont.getServerDocument().getServerLocation().toString();
+		OntologyDocumentRevision localRevision = vont.getRevision();
+		try {
+			OntologyDocumentRevision serverRevision = client.evaluateRevisionPointer(vont.getServerDocument(), RevisionPointer.HEAD_REVISION);
+			int uncommitted = ClientUtilities.getUncommittedChanges(client, vont).size();
+			return ClientStatus.create(serverDocument, localRevision, serverRevision, uncommitted);
+		}
+		catch (OWLServerException | RuntimeException e) {
+			return ClientStatus.failed(serverDocument, localRevision, e.getMessage());
+		}
+	}
+
+	/**
+	 * Discard the status snapshot of the given versioned ontology, e.g., after a commit, an update or a local
+	 * edit. Listeners are notified, with a null status, and while there are listeners a new snapshot is taken
+	 * with the client that took the last one. A snapshot that is being taken is discarded when it is done
+	 */
+	public void invalidate(VersionedOntologyDocument vont) {
+		Client client;
+		synchronized (this) {
+			boolean discarded = (snapshots.remove(vont) != null);
+			if (pending.contains(vont)) {
+				stale.add(vont);
+				return;
+			}
+			if (!discarded) {
+				return;
+			}
+			client = (listeners.isEmpty() ? null : clients.get(vont));
+		}
+		fireStatusChanged(vont, null);
+		if (client != null) {
+			forceRefresh(client, vont);
+		}
+	}
+
+	/**
+	 * Forget everything about the given versioned ontology, e.g., when it is closed
+	 */
+	public synchronized void forget(VersionedOntologyDocument vont) {
+		snapshots.remove(vont);
+		clients.remove(vont);
+		stale.remove(vont);
+	}
+
+	public synchronized void addListener(ClientStatusListener listener) {
+		listeners.add(listener);
+	}
+
+	public synchronized void removeListener(ClientStatusListener listener) {
+		listeners.remove(listener);
+	}
+
+	private void fireStatusChanged(final VersionedOntologyDocument vont, final ClientStatus status) {
+		final List<ClientStatusListener> listenersToNotify;
+		synchronized (this) {
+			listenersToNotify = new ArrayList<ClientStatusListener>(listeners);
+		}
+		SwingUtilities.invokeLater(new Runnable() {
+			@Override
+			public void run() {
+				for (ClientStatusListener listener : listenersToNotify) {
+					listener.statusChanged(vont, status);
+				}
+			}
+		});
+	}
+}
@@ -0,0 +1,283 @@
+package org.protege.editor.owl.client.connect;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.protege.editor.core.ui.error.ErrorLogPanel;
+import org.protege.owl.server.api.ChangeHistory;
+import org.protege.owl.server.api.OntologyDocumentRevision;
+import org.protege.owl.server.api.client.VersionedOntologyDocument;
+
+/**
+ * Saves the local histories of versioned ontologies behind the scenes. Save requests for an ontology that
+ * arrive while a save is still pending are folded into that save, and a save is skipped if the history has
+ * not grown since it was last saved. Once the history of an ontology is known to be on disk, later saves
+ * only append the new revisions to its {@link HistorySegmentLog}; when the log reaches {@link #MAX_SEGMENTS}
+ * segments, the history file is written in full and the log discarded
+ */
+public class HistoryPersister {
+	public static final long SAVE_DELAY = 2000; // milliseconds
+	public static final int MAX_SEGMENTS = 32;
+	private static final String METADATA_DIRECTORY = ".owlserver";
+	private static final String HISTORY_FILE_EXTENSION = ".history";
+	private Logger logger = Logger.getLogger(HistoryPersister.class.getCanonicalName());
+
+	private final ScheduledExecutorService timer;
+	private final OntologyTaskScheduler scheduler;
+	// guarded by this
+	private final Map<VersionedOntologyDocument, Future<?>> pending = new IdentityHashMap<VersionedOntologyDocument, Future<?>>(); // the delay, then the save
+	private final Set<VersionedOntologyDocument> forgotten = Collections.newSetFromMap(new WeakHashMap<VersionedOntologyDocument, Boolean>());
+	private final Map<VersionedOntologyDocument, OntologyDocumentRevision> savedRevisions = new IdentityHashMap<VersionedOntologyDocument, OntologyDocumentRevision>();
+	private long saveCount, appendCount, compactionCount, skippedCount, coalescedCount, totalSaveMillis, totalBytesWritten;
+
+	/**
+	 * @param timer Executor on which the write-behind delay elapses
+	 * @param scheduler Scheduler on which the saves run, in turn with the other operations on the ontology
+	 */
+	public HistoryPersister(ScheduledExecutorService timer, OntologyTaskScheduler scheduler) {
+		this.timer = timer;
+		this.scheduler = scheduler;
+	}
+
+	/**
+	 * Save the local history of the given versioned ontology after {@link #SAVE_DELAY} milliseconds,
+	 * unless a save is already pending or the ontology has been forgotten
+	 */
+	public synchronized void requestSave(final VersionedOntologyDocument vont) {
+		if (forgotten.contains(vont)) {
+			return;
+		}
+		if (pending.containsKey(vont)) {
+			coalescedCount++;
+			return;
+		}
+		pending.put(vont, timer.schedule(new Runnable() {
+			@Override
+			public void run() {
+				synchronized (HistoryPersister.this) {
+					if (pending.containsKey(vont)) { // not forgotten meanwhile
+						pending.put(vont, scheduler.submit(vont, new Runnable() {
+							@Override
+							public void run() {
+								save(vont);
+							}
+						}));
+					}
+				}
+			}
+		}, SAVE_DELAY, TimeUnit.MILLISECONDS));
+	}
+
+	private void save(VersionedOntologyDocument vont) {
+		OntologyDocumentRevision endRevision;
+		OntologyDocumentRevision savedRevision;
+		synchronized (this) {
+			if (pending.remove(vont) == null) {
+				return; // forgotten meanwhile
+			}
+			// requests from now on need a save of their own
+			endRevision = vont.getLocalHistory().getEndRevision();
+			savedRevision = savedRevisions.get(vont);
+			if (endRevision.equals(savedRevision)) {
+				skippedCount++;
+				return;
+			}
+		}
+		try {
+			long startTime = System.currentTimeMillis();
+			long bytes = appendSegment(vont, savedRevision, endRevision);
+			boolean appended = (bytes >= 0);
+			if (!appended) {
+				saveInFull(vont);
+				bytes = getHistoryFileLength(vont);
+			}
+			long interval = System.currentTimeMillis() - startTime;
+			synchronized (this) {
+				if (!forgotten.contains(vont)) {
+					savedRevisions.put(vont, endRevision);
+				}
+				saveCount++;
+				if (appended) {
+					appendCount++;
+				}
+				totalSaveMillis += interval;
+				totalBytesWritten += Math.max(0, bytes);
+			}
+			Level level = (interval > 1000 ? Level.INFO : Level.FINE);
+			logger.log(level, (appended ? "Append of " + savedRevision + " to " + endRevision + " to the history of " : "Save of history file for ") +
+					vont.getOntology().getOntologyID() + " took " + interval + " ms" + (bytes >= 0 ? " and wrote " + bytes + " bytes." : "."));
+		}
+		catch (Error | RuntimeException | IOException e) {
+			ErrorLogPanel.showErrorDialog(e);
+		}
+	}
+
+	/*
+	 * Append the revisions saved since the history file was last written to the segment log, compacting the
+	 * log in a task of its own once it grows long. Returns the number of bytes written, or -1 if the history
+	 * has to be saved in full.
+	 */
+	private long appendSegment(final VersionedOntologyDocument vont, OntologyDocumentRevision savedRevision, OntologyDocumentRevision endRevision) throws IOException {
+		ChangeHistory history = vont.getLocalHistory();
+		final HistorySegmentLog segmentLog = HistorySegmentLog.get(vont);
+		if (segmentLog == null || savedRevision == null || savedRevision.compareTo(endRevision) > 0 ||
+				savedRevision.compareTo(history.getStartRevision()) < 0) {
+			return -1;
+		}
+		final String serverLocation = getServerLocation(vont);
+		long bytes = segmentLog.append(serverLocation, history.cropChanges(savedRevision, endRevision));
+		if (bytes >= 0 && segmentLog.getSegmentCount(serverLocation) >= MAX_SEGMENTS) {
+			scheduler.submit(vont, new Runnable() {
+				@Override
+				public void run() {
+					try {
+						if (!isForgotten(vont) && segmentLog.getSegmentCount(serverLocation) >= MAX_SEGMENTS) {
+							compact(vont);
+						}
+					}
+					catch (Error | RuntimeException | IOException e) {
+						ErrorLogPanel.showErrorDialog(e);
+					}
+				}
+			});
+		}
+		return bytes;
+	}
+
+	private void compact(VersionedOntologyDocument vont) throws IOException {
+		long startTime = System.currentTimeMillis();
+		OntologyDocumentRevision endRevision = vont.getLocalHistory().getEndRevision();
+		saveInFull(vont);
+		synchronized (this) {
+			if (savedRevisions.containsKey(vont)) {
+				savedRevisions.put(vont, endRevision);
+			}
+			compactionCount++;
+		}
+		logger.fine("Compaction of the history of " + vont.getOntology().getOntologyID() + " took " + (System.currentTimeMillis() - startTime) + " ms.");
+	}
+
+	/*
+	 * Write the whole history file, after which the segment log holds nothing that the history file does not
+	 */
+	private void saveInFull(VersionedOntologyDocument vont) throws IOException {
+		vont.saveLocalHistory();
+		HistorySegmentLog segmentLog = HistorySegmentLog.get(vont);
+		if (segmentLog != null) {
+			segmentLog.delete();
+		}
+	}
+
+	/**
+	 * Bring the local history of a versioned ontology that has just been loaded from disk up to date with the
+	 * revisions that were appended to its segment log rather than written to the history file. Must be called
+	 * before anything else uses the history.
+	 */
+	public void restore(VersionedOntologyDocument vont) {
+		HistorySegmentLog segmentLog = HistorySegmentLog.get(vont);
+		if (segmentLog == null) {
+			return;
+		}
+		try {
+			for (ChangeHistory segment : segmentLog.read(getServerLocation(vont))) {
+				OntologyDocumentRevision end = vont.getLocalHistory().getEndRevision();
+				if (segment.getEndRevision().compareTo(end) <= 0) {
+					continue; // already in the history file
+				}
+				if (segment.getStartRevision().compareTo(end) > 0) {
+					logger.warning("The history segments of " + vont.getOntology().getOntologyID() + " do not follow on from revision " + end);
+					break;
+				}
+				vont.appendLocalHistory(segment.cropChanges(end, segment.getEndRevision()));
+			}
+			synchronized (this) {
+				savedRevisions.put(vont, vont.getLocalHistory().getEndRevision());
+			}
+		}
+		catch (IOException | ClassNotFoundException | ClassCastException e) {
+			// the next save writes the history file in full and starts a new log
+			logger.log(Level.WARNING, "Unable to read history segments " + segmentLog.getFile(), e);
+		}
+	}
+
+	private static String getServerLocation(VersionedOntologyDocument vont) {
+		return vont.getServerDocument().getServerLocation().toString();
+	}
+
+	/*
+	 * The history file is kept in the client metadata directory next to the ontology document
+	 */
+	private static long getHistoryFileLength(VersionedOntologyDocument vont) {
+		File backingStore = vont.getBackingStore();
+		if (backingStore == null) {
+			return -1;
+		}
+		File historyFile = new File(new File(backingStore.getParentFile(), METADATA_DIRECTORY), backingStore.getName() + HISTORY_FILE_EXTENSION);
+		return (historyFile.exists() ? historyFile.length() : -1);
+	}
+
+	/**
+	 * Forget what was saved for the given versioned ontology, so that the next request saves its history
+	 */
+	public synchronized void reset(VersionedOntologyDocument vont) {
+		savedRevisions.remove(vont);
+	}
+
+	/**
+	 * Forget everything about the given versioned ontology, e.g., when it is closed. A pending save is
+	 * cancelled, unless it has already started, and later requests to save the history are ignored
+	 */
+	public synchronized void forget(VersionedOntologyDocument vont) {
+		forgotten.add(vont);
+		Future<?> save = pending.remove(vont);
+		if (save != null) {
+			save.cancel(false);
+		}
+		savedRevisions.remove(vont);
+	}
+
+	private synchronized boolean isForgotten(VersionedOntologyDocument vont) {
+		return forgotten.contains(vont);
+	}
+
+	public synchronized long getSaveCount() {
+		return saveCount;
+	}
+
+	/**
+	 * Number of saves that appended to the segment log rather than writing the history file in full
+	 */
+	public synchronized long getAppendCount() {
+		return appendCount;
+	}
+
+	public synchronized long getCompactionCount() {
+		return compactionCount;
+	}
+
+	public synchronized long getSkippedCount() {
+		return skippedCount;
+	}
+
+	public synchronized long getCoalescedCount() {
+		return coalescedCount;
+	}
+
+	public synchronized long getTotalSaveMillis() {
+		return totalSaveMillis;
+	}
+
+	public synchronized long getTotalBytesWritten() {
+		return totalBytesWritten;
+	}
+}
@@ -0,0 +1,282 @@
+package org.protege.editor.owl.client.connect;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.protege.owl.server.api.ChangeHistory;
+import org.protege.owl.server.api.OntologyDocumentRevision;
+import org.protege.owl.server.api.client.VersionedOntologyDocument;
+
+/**
+ * An append-only log of the revisions added to the local history of a versioned ontology since the history
+ * file was last written in full. The log lives in the client metadata directory next to the ontology document
+ * and holds a header naming the server document, one segment per append and an index footer:
+ * <pre>
+ *   header:  MAGIC, FORMAT_VERSION, server location
+ *   segment: SEGMENT_MAGIC, start revision, end revision, length, gzipped serialized change history
+ *   footer:  segment count, (start revision, end revision, offset, length) per segment, footer offset, FOOTER_MAGIC
+ * </pre>
+ * Appending overwrites the footer with the new segment and a new footer, so the cost of an append does not
+ * depend on the size of the history. If the footer is damaged the segments are found by scanning the file.
+ */
+public class HistorySegmentLog {
+	private static final int MAGIC = 0x50485347; // "PHSG"
+	private static final int FORMAT_VERSION = 1;
+	private static final int SEGMENT_MAGIC = 0x5345474d;
+	private static final int FOOTER_MAGIC = 0x46545231;
+	private static final int SEGMENT_HEADER_LENGTH = 16;
+	private static final int FOOTER_ENTRY_LENGTH = 20;
+	private static final int FOOTER_TRAILER_LENGTH = 12;
+	private static final String METADATA_DIRECTORY = ".owlserver";
+	private static final String LOG_FILE_EXTENSION = ".history-segments";
+
+	private final File file;
+
+	public HistorySegmentLog(File file) {
+		this.file = file;
+	}
+
+	/**
+	 * Get the segment log of the given versioned ontology, or null if the ontology has not been saved to a file
+	 */
+	public static HistorySegmentLog get(VersionedOntologyDocument vont) {
+		File backingStore = vont.getBackingStore();
+		if (backingStore == null) {
+			return null;
+		}
+		File directory = new File(backingStore.getParentFile(), METADATA_DIRECTORY);
+		return new HistorySegmentLog(new File(directory, backingStore.getName() + LOG_FILE_EXTENSION));
+	}
+
+	public File getFile() {
+		return file;
+	}
+
+	/**
+	 * Append the given revisions to the log. The revisions must follow on from the last segment of the log;
+	 * a log written for another server document is started afresh.
+	 *
+	 * @return the number of bytes written, or -1 if the revisions do not follow on from the log, in which
+	 *         case nothing is written
+	 */
+	public synchronized long append(String serverLocation, ChangeHistory segment) throws IOException {
+		byte[] data = serialize(segment);
+		File directory = file.getParentFile();
+		if (!directory.exists() && !directory.mkdirs()) {
+			throw new IOException("Could not create directory " + directory);
+		}
+		try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+			List<Segment> index = readIndex(raf, serverLocation);
+			long position;
+			if (index == null) {
+				raf.setLength(0);
+				raf.writeInt(MAGIC);
+				raf.writeInt(FORMAT_VERSION);
+				raf.writeUTF(serverLocation);
+				index = new ArrayList<Segment>();
+				position = raf.getFilePointer();
+			}
+			else if (index.isEmpty()) {
+				position = getHeaderLength(raf);
+			}
+			else {
+				Segment last = index.get(index.size() - 1);
+				if (getRevisionNumber(segment.getStartRevision()) != last.end) {
+					return -1;
+				}
+				position = last.getEndOffset();
+			}
+			Segment added = new Segment(getRevisionNumber(segment.getStartRevision()), getRevisionNumber(segment.getEndRevision()),
+					position, data.length);
+			index.add(added);
+			raf.seek(position);
+			raf.writeInt(SEGMENT_MAGIC);
+			raf.writeInt(added.start);
+			raf.writeInt(added.end);
+			raf.writeInt(added.length);
+			raf.write(data);
+			writeFooter(raf, index);
+			raf.setLength(raf.getFilePointer());
+			return raf.length() - position;
+		}
+	}
+
+	/**
+	 * Read the segments of the log in the order they were appended. The log is empty if it does not exist
+	 * or was written for another server document.
+	 */
+	public synchronized List<ChangeHistory> read(String serverLocation) throws IOException, ClassNotFoundException {
+		List<ChangeHistory> segments = new ArrayList<ChangeHistory>();
+		if (!file.exists()) {
+			return segments;
+		}
+		try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+			List<Segment> index = readIndex(raf, serverLocation);
+			if (index == null) {
+				return segments;
+			}
+			for (Segment s : index) {
+				byte[] data = new byte[s.length];
+				raf.seek(s.offset + SEGMENT_HEADER_LENGTH);
+				raf.readFully(data);
+				segments.add(deserialize(data));
+			}
+		}
+		return segments;
+	}
+
+	/**
+	 * Get the number of segments in the log
+	 */
+	public synchronized int getSegmentCount(String serverLocation) throws IOException {
+		if (!file.exists()) {
+			return 0;
+		}
+		try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+			List<Segment> index = readIndex(raf, serverLocation);
+			return (index == null ? 0 : index.size());
+		}
+	}
+
+	/**
+	 * Delete the log, once the history file holds all of its revisions
+	 */
+	public synchronized void delete() throws IOException {
+		if (file.exists() && !file.delete()) {
+			throw new IOException("Could not delete " + file);
+		}
+	}
+
+	/*
+	 * Returns null if the file is empty, damaged beyond its header or written for another server document
+	 */
+	private List<Segment> readIndex(RandomAccessFile raf, String serverLocation) throws IOException {
+		try {
+			if (raf.length() == 0) {
+				return null;
+			}
+			raf.seek(0);
+			if (raf.readInt() != MAGIC || raf.readInt() != FORMAT_VERSION || !raf.readUTF().equals(serverLocation)) {
+				return null;
+			}
+			long headerLength = raf.getFilePointer();
+			List<Segment> index = readFooter(raf, headerLength);
+			return (index != null ? index : scanSegments(raf, headerLength));
+		}
+		catch (EOFException eof) {
+			return null;
+		}
+	}
+
+	private List<Segment> readFooter(RandomAccessFile raf, long headerLength) throws IOException {
+		long length = raf.length();
+		if (length < headerLength + 4 + FOOTER_TRAILER_LENGTH) {
+			return null;
+		}
+		raf.seek(length - FOOTER_TRAILER_LENGTH);
+		long footerOffset = raf.readLong();
+		if (raf.readInt() != FOOTER_MAGIC || footerOffset < headerLength || footerOffset > length - FOOTER_TRAILER_LENGTH - 4) {
+			return null;
+		}
+		raf.seek(footerOffset);
+		int count = raf.readInt();
+		if (count < 0 || footerOffset + 4 + (long) count * FOOTER_ENTRY_LENGTH + FOOTER_TRAILER_LENGTH != length) {
+			return null;
+		}
+		List<Segment> index = new ArrayList<Segment>(count);
+		for (int i = 0; i < count; i++) {
+			index.add(new Segment(raf.readInt(), raf.readInt(), raf.readLong(), raf.readInt()));
+		}
+		return index;
+	}
+
+	/*
+	 * Recover the segments of a log whose footer was not completely written, dropping whatever follows the
+	 * last complete segment
+	 */
+	private List<Segment> scanSegments(RandomAccessFile raf, long headerLength) throws IOException {
+		List<Segment> index = new ArrayList<Segment>();
+		long position = headerLength;
+		long length = raf.length();
+		while (position + SEGMENT_HEADER_LENGTH <= length) {
+			raf.seek(position);
+			if (raf.readInt() != SEGMENT_MAGIC) {
+				break;
+			}
+			Segment s = new Segment(raf.readInt(), raf.readInt(), position, raf.readInt());
+			if (s.length < 0 || s.end <= s.start || s.getEndOffset() > length ||
+					(!index.isEmpty() && index.get(index.size() - 1).end != s.start)) {
+				break;
+			}
+			index.add(s);
+			position = s.getEndOffset();
+		}
+		return index;
+	}
+
+	private void writeFooter(RandomAccessFile raf, List<Segment> index) throws IOException {
+		long footerOffset = raf.getFilePointer();
+		raf.writeInt(index.size());
+		for (Segment s : index) {
+			raf.writeInt(s.start);
+			raf.writeInt(s.end);
+			raf.writeLong(s.offset);
+			raf.writeInt(s.length);
+		}
+		raf.writeLong(footerOffset);
+		raf.writeInt(FOOTER_MAGIC);
+	}
+
+	private long getHeaderLength(RandomAccessFile raf) throws IOException {
+		raf.seek(0);
+		raf.readInt();
+		raf.readInt();
+		raf.readUTF();
+		return raf.getFilePointer();
+	}
+
+	private static byte[] serialize(ChangeHistory segment) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (ObjectOutputStream out = new ObjectOutputStream(new GZIPOutputStream(bytes))) {
+			out.writeObject(segment);
+		}
+		return bytes.toByteArray();
+	}
+
+	private static ChangeHistory deserialize(byte[] data) throws IOException, ClassNotFoundException {
+		try (ObjectInputStream in = new ObjectInputStream(new GZIPInputStream(new ByteArrayInputStream(data)))) {
+			return (ChangeHistory) in.readObject();
+		}
+	}
+
+	private static int getRevisionNumber(OntologyDocumentRevision revision) {
+		return revision.getRevisionDifferenceFrom(OntologyDocumentRevision.START_REVISION);
+	}
+
+	private static class Segment {
+		final int start, end;
+		final long offset;
+		final int length;
+
+		Segment(int start, int end, long offset, int length) {
+			this.start = start;
+			this.end = end;
+			this.offset = offset;
+			this.length = length;
+		}
+
+		long getEndOffset() {
+			return offset + SEGMENT_HEADER_LENGTH + length;
+		}
+	}
+}
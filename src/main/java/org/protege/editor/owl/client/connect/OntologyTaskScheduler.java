@@ -0,0 +1,193 @@
+package org.protege.editor.owl.client.connect;
+
+import java.util.ArrayDeque;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.protege.owl.server.api.client.VersionedOntologyDocument;
+
+/**
+ * Runs client-server operations on a bounded pool of worker threads. Operations on the same versioned ontology
+ * run one at a time, in the order they were submitted, while operations on different versioned ontologies run
+ * concurrently. A worker runs a single operation before yielding, so that a busy ontology does not starve
+ * the others. The versioned ontologies share an ontology manager whose listeners are not thread-safe, so
+ * operations that change an ontology hold the {@link #getChangeLock() change lock} while doing so
+ */
+public class OntologyTaskScheduler {
+	private static final long KEEP_ALIVE_SECONDS = 60;
+	private final ThreadPoolExecutor workers;
+	private final Map<VersionedOntologyDocument, TaskQueue> queues = new IdentityHashMap<VersionedOntologyDocument, TaskQueue>(); // guarded by itself
+	private int queuedTasks; // guarded by queues
+	private int maxQueuedTasks; // guarded by queues
+	private final AtomicLong completedTasks = new AtomicLong();
+	private final Lock changeLock = new ReentrantLock(true);
+
+	public OntologyTaskScheduler(int poolSize) {
+		if (poolSize <= 0) {
+			throw new IllegalArgumentException("Pool size must be positive: " + poolSize);
+		}
+		final AtomicInteger threadCount = new AtomicInteger();
+		final ThreadFactory defaultFactory = Executors.defaultThreadFactory();
+		workers = new ThreadPoolExecutor(poolSize, poolSize, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(),
+				new ThreadFactory() {
+					@Override
+					public Thread newThread(Runnable r) {
+						Thread th = defaultFactory.newThread(r);
+						th.setName("Client-Server Communications " + threadCount.incrementAndGet());
+						th.setDaemon(true);
+						return th;
+					}
+				});
+		workers.allowCoreThreadTimeOut(true);
+	}
+
+	public <T> Future<T> submit(VersionedOntologyDocument vont, Callable<T> task) {
+		FutureTask<T> future = new FutureTask<T>(task);
+		enqueue(vont, future);
+		return future;
+	}
+
+	public Future<?> submit(VersionedOntologyDocument vont, Runnable task) {
+		FutureTask<Void> future = new FutureTask<Void>(task, null);
+		enqueue(vont, future);
+		return future;
+	}
+
+	private void enqueue(VersionedOntologyDocument vont, Runnable task) {
+		if (vont == null) {
+			throw new NullPointerException("Operations must be associated with a versioned ontology");
+		}
+		synchronized (queues) {
+			if (workers.isShutdown()) {
+				throw new IllegalStateException("Scheduler has been shut down");
+			}
+			TaskQueue queue = queues.get(vont);
+			if (queue == null) {
+				queue = new TaskQueue(vont);
+				queues.put(vont, queue);
+			}
+			queue.tasks.add(task);
+			queuedTasks++;
+			maxQueuedTasks = Math.max(maxQueuedTasks, queuedTasks);
+			if (!queue.scheduled) {
+				queue.scheduled = true;
+				workers.execute(queue);
+			}
+		}
+	}
+
+	/**
+	 * Get the number of operations on the given versioned ontology that are waiting or running
+	 */
+	public int getQueueDepth(VersionedOntologyDocument vont) {
+		synchronized (queues) {
+			TaskQueue queue = queues.get(vont);
+			return queue != null ? queue.tasks.size() + (queue.running ? 1 : 0) : 0;
+		}
+	}
+
+	/**
+	 * Get the number of operations, on all versioned ontologies, that are waiting or running
+	 */
+	public int getQueueDepth() {
+		synchronized (queues) {
+			return queuedTasks;
+		}
+	}
+
+	/**
+	 * Get the largest number of operations that have been waiting or running at the same time
+	 */
+	public int getMaxQueueDepth() {
+		synchronized (queues) {
+			return maxQueuedTasks;
+		}
+	}
+
+	/**
+	 * Get the lock that operations hold while they apply changes to an ontology, such as an update from the
+	 * server, so that changes are applied one at a time across all ontologies. Work that does not change an
+	 * ontology, such as checking the server head revision, should be done before taking the lock
+	 */
+	public Lock getChangeLock() {
+		return changeLock;
+	}
+
+	public int getActiveWorkerCount() {
+		return workers.getActiveCount();
+	}
+
+	public long getCompletedTaskCount() {
+		return completedTasks.get();
+	}
+
+	public void shutdown() {
+		synchronized (queues) {
+			workers.shutdown();
+		}
+	}
+
+	public boolean isShutdown() {
+		synchronized (queues) {
+			return workers.isShutdown();
+		}
+	}
+
+	public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+		return workers.awaitTermination(timeout, unit);
+	}
+
+	/**
+	 * The operations waiting on a versioned ontology. The queue is scheduled on the worker pool whenever it
+	 * has operations, and runs the first of them each time it is executed
+	 */
+	private class TaskQueue implements Runnable {
+		private final VersionedOntologyDocument vont;
+		private final Queue<Runnable> tasks = new ArrayDeque<Runnable>();
+		private boolean scheduled, running; // guarded by queues
+
+		public TaskQueue(VersionedOntologyDocument vont) {
+			this.vont = vont;
+		}
+
+		@Override
+		public void run() {
+			while (true) {
+				Runnable task;
+				synchronized (queues) {
+					task = tasks.poll();
+					running = true;
+				}
+				task.run(); // a FutureTask, which keeps any exception for the submitter
+				completedTasks.incrementAndGet();
+				synchronized (queues) {
+					running = false;
+					queuedTasks--;
+					if (tasks.isEmpty()) {
+						scheduled = false;
+						queues.remove(vont);
+						return;
+					}
+					if (!workers.isShutdown()) {
+						workers.execute(this);
+						return;
+					}
+					// once shut down, the pool takes no new work, so drain the remaining operations here
+				}
+			}
+		}
+	}
+}
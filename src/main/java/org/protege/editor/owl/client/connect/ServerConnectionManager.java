@@ -3,7 +3,11 @@ package org.protege.editor.owl.client.connect;
 import org.protege.editor.core.editorkit.plugin.EditorKitHook;
 import org.protege.editor.core.ui.error.ErrorLogPanel;
 import org.protege.editor.owl.OWLEditorKit;
+import org.protege.editor.owl.client.ClientPreferences;
 import org.protege.editor.owl.model.OWLModelManager;
+import org.protege.editor.owl.model.event.EventType;
+import org.protege.editor.owl.model.event.OWLModelManagerChangeEvent;
+import org.protege.editor.owl.model.event.OWLModelManagerListener;
 import org.protege.editor.owl.model.io.IOListener;
 import org.protege.editor.owl.model.io.IOListenerEvent;
 import org.protege.owl.server.api.client.Client;
@@ -13,18 +17,20 @@ import org.protege.owl.server.util.ClientRegistry;
 import org.semanticweb.owlapi.model.*;
 
 import java.io.IOException;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.TreeMap;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
-import java.util.logging.Logger;
 
 public class ServerConnectionManager extends EditorKitHook {
 	public static String ID = "org.protege.editor.owl.client.ServerConnectionManager";
-	private Logger logger = Logger.getLogger(ServerConnectionManager.class.getCanonicalName());
 	
 	public static ServerConnectionManager get(OWLEditorKit editorKit) {
 		return (ServerConnectionManager) editorKit.get(ID);
@@ -41,6 +47,12 @@ public class ServerConnectionManager extends EditorKitHook {
 	       return th;
 	    } 
 	});
+
+	private OntologyTaskScheduler scheduler = new OntologyTaskScheduler(Math.max(1, ClientPreferences.getInstance().getServerWorkerThreads()));
+
+	private ClientStatusService statusService = new ClientStatusService(scheduler);
+
+	private HistoryPersister historyPersister = new HistoryPersister(singleThreadExecutorService, scheduler);
 	
 	private IOListener ioListener = new IOListener() {
 		
@@ -75,7 +87,9 @@ public class ServerConnectionManager extends EditorKitHook {
 		        OWLOntologyID id = event.getOntologyID();
 		        OWLOntology ontology = manager.getOntology(id);
 		        if (ontology != null && registry.hasSuitableMetaData(ontology)) {
-		            addVersionedOntology(registry.getVersionedOntologyDocument(ontology));
+		            VersionedOntologyDocument vont = registry.getVersionedOntologyDocument(ontology);
+		            historyPersister.restore(vont);
+		            addVersionedOntology(vont);
 		        }
 		    }
 		    catch (IOException ioe) {
@@ -100,6 +114,39 @@ public class ServerConnectionManager extends EditorKitHook {
 		}
 	};
 	
+	private OWLOntologyChangeListener statusInvalidatingListener = new OWLOntologyChangeListener() {
+		public void ontologiesChanged(List<? extends OWLOntologyChange> changes) throws OWLException {
+			// edits change the number of uncommitted changes
+			Set<OWLOntology> changed = Collections.newSetFromMap(new IdentityHashMap<OWLOntology, Boolean>());
+			for (OWLOntologyChange change : changes) {
+				if (changed.add(change.getOntology())) {
+					VersionedOntologyDocument vont = getVersionedOntology(change.getOntology());
+					if (vont != null) {
+						statusService.invalidate(vont);
+					}
+				}
+			}
+		}
+	};
+	
+	private OWLModelManagerListener ontologyClosedListener = new OWLModelManagerListener() {
+		@Override
+		public void handleChange(OWLModelManagerChangeEvent event) {
+			if (event.isType(EventType.ONTOLOGY_VISIBILITY_CHANGED)) {
+				// ontologies that have been removed from the workspace
+				Iterator<VersionedOntologyDocument> it = ontologyMap.values().iterator();
+				while (it.hasNext()) {
+					VersionedOntologyDocument vont = it.next();
+					if (!getOWLOntologyManager().contains(vont.getOntology())) {
+						it.remove();
+						historyPersister.forget(vont);
+						statusService.forget(vont);
+					}
+				}
+			}
+		}
+	};
+	
 	@Override
 	protected OWLEditorKit getEditorKit() {
 		return (OWLEditorKit) super.getEditorKit();
@@ -117,20 +164,43 @@ public class ServerConnectionManager extends EditorKitHook {
 	public void initialise() throws Exception {
 	    registry.addFactory(new RMIClientFactory(getEditorKit().getOWLWorkspace()));
 		getOWLModelManager().addIOListener(ioListener);
+		getOWLModelManager().addListener(ontologyClosedListener);
 		getOWLOntologyManager().addOntologyChangeListener(ontologyIdChangeListener);
+		getOWLOntologyManager().addOntologyChangeListener(statusInvalidatingListener);
 	}
 
 	@Override
 	public void dispose() throws InterruptedException {
 		getOWLModelManager().removeIOListener(ioListener);
+		getOWLModelManager().removeListener(ontologyClosedListener);
 		getOWLOntologyManager().removeOntologyChangeListener(ontologyIdChangeListener);
+		getOWLOntologyManager().removeOntologyChangeListener(statusInvalidatingListener);
 		singleThreadExecutorService.shutdown();
-		singleThreadExecutorService.awaitTermination(5, TimeUnit.MINUTES);
+		singleThreadExecutorService.awaitTermination(5, TimeUnit.MINUTES); // lets pending history saves reach the scheduler
+		scheduler.shutdown();
+		scheduler.awaitTermination(5, TimeUnit.MINUTES);
 	}
 	
+	/**
+	 * Get the executor on which all client-server communication used to run. Operations on a versioned
+	 * ontology should be submitted to {@link #getScheduler()} instead, so that they do not wait on
+	 * operations on other ontologies
+	 */
 	public ScheduledExecutorService getSingleThreadExecutorService() {
         return singleThreadExecutorService;
     }
+
+	/**
+	 * Get the scheduler that runs operations on versioned ontologies, one at a time per ontology and
+	 * concurrently across ontologies
+	 */
+	public OntologyTaskScheduler getScheduler() {
+	    return scheduler;
+	}
+
+	public ClientStatusService getStatusService() {
+	    return statusService;
+	}
 	
 	public VersionedOntologyDocument getVersionedOntology(OWLOntology ontology) {
 		return ontologyMap.get(ontology.getOntologyID());
@@ -157,31 +227,17 @@ public class ServerConnectionManager extends EditorKitHook {
         return registry.connectToServer(serverLocation, username, password);
 	}
 
+	/**
+	 * Save the local history of the given versioned ontology in the background. Repeated requests are
+	 * coalesced, nothing is written if the history has not grown since it was last saved, and otherwise
+	 * usually only the new revisions are written
+	 */
 	public void saveHistoryInBackground(VersionedOntologyDocument vont) {
-	    singleThreadExecutorService.submit(new SaveHistory(vont));
+	    historyPersister.requestSave(vont);
 	}
-	
-	private class SaveHistory implements Runnable {
-	    private VersionedOntologyDocument vont;
-	    
-	    public SaveHistory(VersionedOntologyDocument vont) {
-	        this.vont = vont;
-        }
-	    
-	    @Override
-	    public void run() {
-	        try {
-	            long startTime = System.currentTimeMillis();
-	            vont.saveLocalHistory();
-	            long interval = System.currentTimeMillis() - startTime;
-	            if (interval > 1000) {
-	                logger.info("Save of history file for " + vont.getOntology().getOntologyID() + " took " + (interval / 1000) + " seconds.");
-	            }
-	        }
-	        catch (Error | RuntimeException | IOException e) {
-				ErrorLogPanel.showErrorDialog(e);
-	        }
-		}
+
+	public HistoryPersister getHistoryPersister() {
+	    return historyPersister;
 	}
 
 }
@@ -28,7 +28,7 @@ public interface DiffFactory {
     Change createChange(ChangeId changeId, Set<OWLOntologyChange> changes, ChangeDetails details, CommitMetadata commitMetadata, ChangeMode changeMode);
 
     /**
-     * Create an instance of a Change where the change identifier is an automatically generated UUID
+     * Create an instance of a Change with an automatically generated change identifier
      *
      * @param changes   Set of OWL ontology changes
      * @param details   Change details
@@ -79,7 +79,8 @@ public interface DiffFactory {
     RevisionTag createRevisionTag(String revisionTag);
 
     /**
-     * Generate a random change identifier that is a UUID
+     * Generate a new change identifier, which is either a sequence number or a time-based UUID
+     * depending on the factory
      *
      * @return Change identifier
      */
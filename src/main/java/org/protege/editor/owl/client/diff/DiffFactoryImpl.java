@@ -11,18 +11,32 @@ import org.semanticweb.owlapi.model.OWLOntologyChange;
 import java.util.Date;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * @author Rafael Gonçalves <br>
  * Stanford Center for Biomedical Informatics Research
  */
 public class DiffFactoryImpl implements DiffFactory {
-    private final TimeBasedGenerator gen = Generators.timeBasedGenerator(EthernetAddress.fromInterface());
+    private final boolean sequentialChangeIds;
+    private final AtomicLong changeIdSequence = new AtomicLong();
 
     /**
-     * No-args constructor
+     * No-args constructor, for a factory that generates time-based UUID change identifiers
      */
-    public DiffFactoryImpl() { }
+    public DiffFactoryImpl() {
+        this(false);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param sequentialChangeIds   true if generated change identifiers should be sequence numbers (unique to this
+     *                              factory), false if they should be time-based UUIDs
+     */
+    public DiffFactoryImpl(boolean sequentialChangeIds) {
+        this.sequentialChangeIds = sequentialChangeIds;
+    }
 
     @Override
     public Change createChange(ChangeId changeId, Set<OWLOntologyChange> changes, ChangeDetails details, CommitMetadata commitMetadata, ChangeMode changeMode) {
@@ -57,7 +71,10 @@ public class DiffFactoryImpl implements DiffFactory {
 
     @Override
     public ChangeId createChangeId() {
-        return createChangeId(gen.generate().toString());
+        if (sequentialChangeIds) {
+            return new SequentialChangeIdImpl(changeIdSequence.incrementAndGet());
+        }
+        return createChangeId(UuidGenerator.INSTANCE.generate().toString());
     }
 
     @Override
@@ -69,4 +86,12 @@ public class DiffFactoryImpl implements DiffFactory {
     public Review createReview(ReviewStatus status, Optional<UserId> author, Optional<Date> date, Optional<String> comment, boolean isCommitted) {
         return new ReviewImpl(status, author, date, comment, isCommitted);
     }
+
+    /**
+     * Holder of the UUID generator, which is only initialized when a UUID is first needed since looking up
+     * the network interface address can be slow
+     */
+    private static final class UuidGenerator {
+        private static final TimeBasedGenerator INSTANCE = Generators.timeBasedGenerator(EthernetAddress.fromInterface());
+    }
 }
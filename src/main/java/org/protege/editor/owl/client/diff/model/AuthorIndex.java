@@ -0,0 +1,66 @@
+package org.protege.editor.owl.client.diff.model;
+
+import org.protege.owl.server.api.ChangeMetaData;
+import org.protege.owl.server.api.OntologyDocumentRevision;
+import org.protege.owl.server.api.UserId;
+
+import java.util.*;
+
+/**
+ * An index of the authors of the revisions in the local history of a versioned ontology, along with their
+ * commit statistics
+ *
+ * @author Rafael Gonçalves <br>
+ * Stanford Center for Biomedical Informatics Research
+ */
+public class AuthorIndex extends HistoryIndex {
+    private final Map<UserId, AuthorStatistics> statistics = new HashMap<>();
+    private List<UserId> sortedAuthors;
+
+    /**
+     * No-args constructor
+     */
+    public AuthorIndex() { }
+
+    @Override
+    protected void add(OntologyDocumentRevision revision, ChangeMetaData metaData) {
+        UserId user = metaData.getUserId();
+        AuthorStatistics userStatistics = statistics.get(user);
+        if (userStatistics == null) {
+            statistics.put(user, new AuthorStatistics(user, 1, metaData.getDate()));
+            sortedAuthors = null;
+        } else {
+            statistics.put(user, userStatistics.withCommit(metaData.getDate()));
+        }
+    }
+
+    @Override
+    protected void reset() {
+        statistics.clear();
+        sortedAuthors = null;
+    }
+
+    /**
+     * Get the authors in the index, sorted by user identifier
+     *
+     * @return List of authors
+     */
+    public synchronized List<UserId> getAuthors() {
+        if (sortedAuthors == null) {
+            List<UserId> authors = new ArrayList<>(statistics.keySet());
+            Collections.sort(authors);
+            sortedAuthors = Collections.unmodifiableList(authors);
+        }
+        return sortedAuthors;
+    }
+
+    /**
+     * Get the commit statistics of the given author
+     *
+     * @param userId    User identifier
+     * @return Author statistics, if the user authored any of the indexed revisions
+     */
+    public synchronized Optional<AuthorStatistics> getStatistics(UserId userId) {
+        return Optional.ofNullable(statistics.get(userId));
+    }
+}
@@ -0,0 +1,80 @@
+package org.protege.editor.owl.client.diff.model;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Objects;
+import org.protege.owl.server.api.UserId;
+
+import java.util.Date;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Commit statistics of an author
+ *
+ * @author Rafael Gonçalves <br>
+ * Stanford Center for Biomedical Informatics Research
+ */
+public final class AuthorStatistics {
+    private final UserId author;
+    private final int commitCount;
+    private final Date lastCommitDate;
+
+    /**
+     * Constructor
+     *
+     * @param author    User identifier of the author
+     * @param commitCount   Number of commits
+     * @param lastCommitDate    Date of the last commit
+     */
+    public AuthorStatistics(UserId author, int commitCount, Date lastCommitDate) {
+        this.author = checkNotNull(author);
+        this.commitCount = commitCount;
+        this.lastCommitDate = checkNotNull(lastCommitDate);
+    }
+
+    public UserId getAuthor() {
+        return author;
+    }
+
+    public int getCommitCount() {
+        return commitCount;
+    }
+
+    public Date getLastCommitDate() {
+        return lastCommitDate;
+    }
+
+    /**
+     * Get the statistics of this author extended with a commit at the given date
+     *
+     * @param date  Commit date
+     * @return Author statistics
+     */
+    public AuthorStatistics withCommit(Date date) {
+        return new AuthorStatistics(author, commitCount + 1, (date.after(lastCommitDate) ? date : lastCommitDate));
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        AuthorStatistics that = (AuthorStatistics) o;
+        return commitCount == that.commitCount &&
+                Objects.equal(author, that.author) &&
+                Objects.equal(lastCommitDate, that.lastCommitDate);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(author, commitCount, lastCommitDate);
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("author", author)
+                .add("commitCount", commitCount)
+                .add("lastCommitDate", lastCommitDate)
+                .toString();
+    }
+}
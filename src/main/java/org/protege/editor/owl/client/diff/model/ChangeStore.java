@@ -0,0 +1,97 @@
+package org.protege.editor.owl.client.diff.model;
+
+import org.protege.owl.server.api.UserId;
+import org.semanticweb.owlapi.model.OWLObject;
+import org.semanticweb.owlapi.model.OWLOntologyChange;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A store of the changes computed by the log diff engine, indexed by change identifier, author,
+ * commit and change subject
+ *
+ * @author Rafael Gonçalves <br>
+ * Stanford Center for Biomedical Informatics Research
+ */
+public interface ChangeStore {
+
+    /**
+     * Create a change from the given arguments and add it to the store
+     *
+     * @param changes   Set of OWL ontology changes
+     * @param details   Change details
+     * @param commitMetadata    Commit metadata
+     * @param changeMode    Change mode
+     * @return Change that has been added
+     */
+    Change add(Set<OWLOntologyChange> changes, ChangeDetails details, CommitMetadata commitMetadata, ChangeMode changeMode);
+
+    /**
+     * Remove the given change from the store
+     *
+     * @param change    Change
+     */
+    void remove(Change change);
+
+    /**
+     * Get the change with the given identifier
+     *
+     * @param changeId  Change identifier
+     * @return Change, or null if there is no such change in the store
+     */
+    Change get(ChangeId changeId);
+
+    /**
+     * Check whether the store contains the change with the given identifier
+     *
+     * @param changeId  Change identifier
+     * @return true if the store contains the change, false otherwise
+     */
+    boolean contains(ChangeId changeId);
+
+    /**
+     * Get all changes in the store
+     *
+     * @return Collection of changes
+     */
+    Collection<Change> getChanges();
+
+    /**
+     * Get the changes carried out on the given OWL object
+     *
+     * @param subject   Change subject
+     * @return List of changes
+     */
+    List<Change> getChangesForSubject(OWLObject subject);
+
+    /**
+     * Get the changes carried out by the given user
+     *
+     * @param userId    User identifier
+     * @return List of changes
+     */
+    List<Change> getChangesForUser(UserId userId);
+
+    /**
+     * Get the changes in the given commit
+     *
+     * @param commitId  Commit identifier
+     * @return List of changes
+     */
+    List<Change> getChangesForCommit(CommitId commitId);
+
+    /**
+     * Get the number of changes in the store
+     *
+     * @return Number of changes
+     */
+    int size();
+
+    /**
+     * Remove all changes from the store
+     */
+    void clear();
+
+}
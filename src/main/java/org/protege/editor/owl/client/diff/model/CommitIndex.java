@@ -0,0 +1,90 @@
+package org.protege.editor.owl.client.diff.model;
+
+import com.google.common.collect.Lists;
+import org.protege.editor.owl.client.diff.DiffFactory;
+import org.protege.owl.server.api.ChangeMetaData;
+import org.protege.owl.server.api.OntologyDocumentRevision;
+import org.protege.owl.server.api.UserId;
+
+import java.util.*;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * An index of the commits in the local history of a versioned ontology, overall and per author. Commits are
+ * kept in revision order, and returned most recent first as snapshots that are reused until the index changes
+ *
+ * @author Rafael Gonçalves <br>
+ * Stanford Center for Biomedical Informatics Research
+ */
+public class CommitIndex extends HistoryIndex {
+    private final DiffFactory diffFactory;
+    private final LogDiff diff;
+    private final List<CommitMetadata> commits = new ArrayList<>();
+    private final Map<UserId, List<CommitMetadata>> commitsByAuthor = new HashMap<>();
+    private final Map<Optional<UserId>, List<CommitMetadata>> snapshots = new HashMap<>();
+
+    /**
+     * Constructor
+     *
+     * @param diffFactory   Diff factory
+     * @param diff  Log diff engine, which determines the identifier of the commit of each revision
+     */
+    public CommitIndex(DiffFactory diffFactory, LogDiff diff) {
+        this.diffFactory = checkNotNull(diffFactory);
+        this.diff = checkNotNull(diff);
+    }
+
+    @Override
+    protected void add(OntologyDocumentRevision revision, ChangeMetaData metaData) {
+        String comment = (metaData.getCommitComment() != null ? metaData.getCommitComment() : "");
+        CommitMetadata commit = diffFactory.createCommitMetadata(diff.getCommitId(revision), metaData.getUserId(), metaData.getDate(), comment);
+        commits.add(commit);
+        commitsByAuthor.computeIfAbsent(metaData.getUserId(), u -> new ArrayList<>()).add(commit);
+        snapshots.remove(Optional.<UserId>empty());
+        snapshots.remove(Optional.of(metaData.getUserId()));
+    }
+
+    @Override
+    protected void reset() {
+        commits.clear();
+        commitsByAuthor.clear();
+        snapshots.clear();
+    }
+
+    /**
+     * Get all commits, most recent first
+     *
+     * @return List of commits
+     */
+    public synchronized List<CommitMetadata> getCommits() {
+        return snapshots.computeIfAbsent(Optional.empty(), k -> newestFirst(commits));
+    }
+
+    /**
+     * Get the commits of the given author, most recent first
+     *
+     * @param userId    User identifier
+     * @return List of commits
+     */
+    public synchronized List<CommitMetadata> getCommits(UserId userId) {
+        List<CommitMetadata> authorCommits = commitsByAuthor.get(userId);
+        if (authorCommits == null) {
+            return Collections.emptyList();
+        }
+        return snapshots.computeIfAbsent(Optional.of(userId), k -> newestFirst(authorCommits));
+    }
+
+    /**
+     * Get the most recent commit
+     *
+     * @return Most recent commit, if any
+     */
+    public synchronized Optional<CommitMetadata> getLatestCommit() {
+        return (commits.isEmpty() ? Optional.empty() : Optional.of(commits.get(commits.size() - 1)));
+    }
+
+    private static List<CommitMetadata> newestFirst(List<CommitMetadata> commits) {
+        return Collections.unmodifiableList(Lists.reverse(new ArrayList<>(commits)));
+    }
+}
@@ -0,0 +1,494 @@
+package org.protege.editor.owl.client.diff.model;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.ComparisonChain;
+import org.protege.editor.owl.client.diff.DiffFactory;
+import org.protege.owl.server.api.UserId;
+import org.semanticweb.owlapi.model.OWLObject;
+import org.semanticweb.owlapi.model.OWLOntologyChange;
+
+import java.util.*;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * A memory-compact change store that packs changes into parallel arrays addressed by an int change
+ * identifier. Change subjects, commits and authors are interned, the indices are int postings lists,
+ * and changes are exposed through lightweight {@link Change} flyweights that read and write the arrays.
+ * Identifiers are reused after the store is cleared, so flyweights and change identifiers carry the
+ * generation of the store they were created in, and those of an earlier generation are rejected. All
+ * access to the arrays is synchronized on the store, so that writes through flyweights (e.g., reviews
+ * made on the event dispatch thread) are not lost when the arrays are grown
+ *
+ * @author Rafael Gonçalves <br>
+ * Stanford Center for Biomedical Informatics Research
+ */
+public class CompactChangeStore implements ChangeStore {
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final ChangeMode[] MODES = ChangeMode.values();
+    private final DiffFactory diffFactory;
+
+    // per-change columns, addressed by change identifier
+    private int size, removedCount, generation;
+    private BitSet removed = new BitSet();
+    private int[] subjects = new int[INITIAL_CAPACITY];
+    private int[] commits = new int[INITIAL_CAPACITY];
+    private byte[] modes = new byte[INITIAL_CAPACITY];
+    private ChangeDetails[] details = new ChangeDetails[INITIAL_CAPACITY];
+    private Object[] ontologyChanges = new Object[INITIAL_CAPACITY]; // an OWLOntologyChange, or a set of them
+    private OWLOntologyChange[] baselineChanges = new OWLOntologyChange[INITIAL_CAPACITY];
+    private Review[] reviews = new Review[INITIAL_CAPACITY];
+    private IntList[] conflicts = new IntList[INITIAL_CAPACITY];
+
+    // interned values and postings lists
+    private Interner<OWLObject> subjectTable = new Interner<>();
+    private Interner<CommitId> commitTable = new Interner<>();
+    private List<CommitMetadata> commitMetadata = new ArrayList<>();
+    private Interner<UserId> authorTable = new Interner<>();
+    private List<IntList> changesBySubject = new ArrayList<>();
+    private List<IntList> changesByCommit = new ArrayList<>();
+    private List<IntList> changesByAuthor = new ArrayList<>();
+
+    /**
+     * Constructor
+     *
+     * @param diffFactory   Diff factory
+     */
+    public CompactChangeStore(DiffFactory diffFactory) {
+        this.diffFactory = checkNotNull(diffFactory);
+    }
+
+    @Override
+    public synchronized Change add(Set<OWLOntologyChange> changes, ChangeDetails changeDetails, CommitMetadata commitMetadata, ChangeMode changeMode) {
+        checkNotNull(changes);
+        checkNotNull(changeDetails);
+        checkNotNull(commitMetadata);
+        checkNotNull(changeMode);
+        ensureCapacity(size + 1);
+        int id = size++;
+        int subject = subjectTable.intern(changeDetails.getSubject());
+        int commit = commitTable.intern(commitMetadata.getCommitId());
+        int author = authorTable.intern(commitMetadata.getAuthor());
+        subjects[id] = subject;
+        commits[id] = commit;
+        modes[id] = (byte) changeMode.ordinal();
+        details[id] = changeDetails;
+        ontologyChanges[id] = (changes.size() == 1 ? changes.iterator().next() : changes);
+        getPostings(changesBySubject, subject).add(id);
+        getPostings(changesByAuthor, author).add(id);
+        if (commit == this.commitMetadata.size()) { // new commit
+            this.commitMetadata.add(commitMetadata);
+        }
+        getPostings(changesByCommit, commit).add(id);
+        return new CompactChange(id, generation);
+    }
+
+    @Override
+    public synchronized void remove(Change change) {
+        int id = getIndex(change.getId());
+        if (id < 0 || removed.get(id)) {
+            return;
+        }
+        // postings lists are not updated; readers skip removed changes
+        removed.set(id);
+        removedCount++;
+        ontologyChanges[id] = null;
+        baselineChanges[id] = null;
+        reviews[id] = null;
+        conflicts[id] = null;
+    }
+
+    @Override
+    public synchronized Change get(ChangeId changeId) {
+        int id = getIndex(changeId);
+        return (id >= 0 ? new CompactChange(id, generation) : null);
+    }
+
+    @Override
+    public synchronized boolean contains(ChangeId changeId) {
+        return getIndex(changeId) >= 0;
+    }
+
+    @Override
+    public synchronized Collection<Change> getChanges() {
+        List<Change> changes = new ArrayList<>(size());
+        for (int id = removed.nextClearBit(0); id < size; id = removed.nextClearBit(id + 1)) {
+            changes.add(new CompactChange(id, generation));
+        }
+        return changes;
+    }
+
+    @Override
+    public synchronized List<Change> getChangesForSubject(OWLObject subject) {
+        return getChanges(changesBySubject, subjectTable.indexOf(subject));
+    }
+
+    @Override
+    public synchronized List<Change> getChangesForUser(UserId userId) {
+        return getChanges(changesByAuthor, authorTable.indexOf(userId));
+    }
+
+    @Override
+    public synchronized List<Change> getChangesForCommit(CommitId commitId) {
+        return getChanges(changesByCommit, commitTable.indexOf(commitId));
+    }
+
+    @Override
+    public synchronized int size() {
+        return size - removedCount;
+    }
+
+    @Override
+    public synchronized void clear() {
+        generation++; // invalidates the flyweights and identifiers handed out so far
+        size = 0;
+        removedCount = 0;
+        removed.clear();
+        Arrays.fill(details, null);
+        Arrays.fill(ontologyChanges, null);
+        Arrays.fill(baselineChanges, null);
+        Arrays.fill(reviews, null);
+        Arrays.fill(conflicts, null);
+        subjectTable.clear();
+        commitTable.clear();
+        commitMetadata.clear();
+        authorTable.clear();
+        changesBySubject.clear();
+        changesByCommit.clear();
+        changesByAuthor.clear();
+    }
+
+    private List<Change> getChanges(List<IntList> index, int key) {
+        if (key < 0 || key >= index.size()) {
+            return new ArrayList<>();
+        }
+        IntList postings = index.get(key);
+        List<Change> changes = new ArrayList<>(postings.size);
+        for (int i = 0; i < postings.size; i++) {
+            int id = postings.values[i];
+            if (!removed.get(id)) {
+                changes.add(new CompactChange(id, generation));
+            }
+        }
+        return changes;
+    }
+
+    private IntList getPostings(List<IntList> index, int key) {
+        if (key == index.size()) {
+            index.add(new IntList());
+        }
+        return index.get(key);
+    }
+
+    private int getIndex(ChangeId changeId) {
+        if (changeId instanceof CompactChangeId) {
+            CompactChangeId compactId = (CompactChangeId) changeId;
+            int id = compactId.id;
+            if (compactId.generation == generation && id < size && !removed.get(id)) {
+                return id;
+            }
+        }
+        return -1;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > subjects.length) {
+            int newCapacity = Math.max(capacity, subjects.length + (subjects.length >> 1));
+            subjects = Arrays.copyOf(subjects, newCapacity);
+            commits = Arrays.copyOf(commits, newCapacity);
+            modes = Arrays.copyOf(modes, newCapacity);
+            details = Arrays.copyOf(details, newCapacity);
+            ontologyChanges = Arrays.copyOf(ontologyChanges, newCapacity);
+            baselineChanges = Arrays.copyOf(baselineChanges, newCapacity);
+            reviews = Arrays.copyOf(reviews, newCapacity);
+            conflicts = Arrays.copyOf(conflicts, newCapacity);
+        }
+    }
+
+    /**
+     * A flyweight view of a change in the store. Accessing a flyweight of an earlier generation of the
+     * store throws an {@link IllegalStateException}
+     */
+    private final class CompactChange implements Change {
+        private final int id, generation;
+
+        CompactChange(int id, int generation) {
+            this.id = id;
+            this.generation = generation;
+        }
+
+        /*
+         * Must be called while holding the store lock
+         */
+        private int index() {
+            if (generation != CompactChangeStore.this.generation) {
+                throw new IllegalStateException("Change " + id + " belongs to a change store that has since been cleared");
+            }
+            return id;
+        }
+
+        @Override
+        public ChangeId getId() {
+            return new CompactChangeId(id, generation);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Set<OWLOntologyChange> getChanges() {
+            Object changes;
+            synchronized (CompactChangeStore.this) {
+                changes = ontologyChanges[index()];
+            }
+            if (changes instanceof OWLOntologyChange) {
+                return Collections.singleton((OWLOntologyChange) changes);
+            }
+            return (changes != null ? (Set<OWLOntologyChange>) changes : Collections.emptySet());
+        }
+
+        @Override
+        public ChangeDetails getDetails() {
+            synchronized (CompactChangeStore.this) {
+                return details[index()];
+            }
+        }
+
+        @Override
+        public CommitMetadata getCommitMetadata() {
+            synchronized (CompactChangeStore.this) {
+                return commitMetadata.get(commits[index()]);
+            }
+        }
+
+        @Override
+        public ChangeMode getMode() {
+            synchronized (CompactChangeStore.this) {
+                return MODES[modes[index()]];
+            }
+        }
+
+        @Override
+        public void setMode(ChangeMode mode) {
+            checkNotNull(mode);
+            synchronized (CompactChangeStore.this) {
+                modes[index()] = (byte) mode.ordinal();
+            }
+        }
+
+        @Override
+        public boolean isOfType(ChangeType type) {
+            return getDetails().getType().equals(type);
+        }
+
+        @Override
+        public void addConflictingChange(ChangeId conflictingChange) {
+            checkArgument(conflictingChange instanceof CompactChangeId, "Unknown change identifier: " + conflictingChange);
+            CompactChangeId conflictingId = (CompactChangeId) conflictingChange;
+            synchronized (CompactChangeStore.this) {
+                int index = index();
+                checkArgument(conflictingId.generation == generation, "Stale change identifier: " + conflictingChange);
+                if (conflicts[index] == null) {
+                    conflicts[index] = new IntList();
+                }
+                conflicts[index].addIfAbsent(conflictingId.id);
+            }
+        }
+
+        @Override
+        public Set<ChangeId> getConflictingChanges() {
+            synchronized (CompactChangeStore.this) {
+                IntList ids = conflicts[index()];
+                if (ids == null) {
+                    return Collections.emptySet();
+                }
+                Set<ChangeId> conflictingChanges = new HashSet<>();
+                for (int i = 0; i < ids.size; i++) {
+                    conflictingChanges.add(new CompactChangeId(ids.values[i], generation));
+                }
+                return conflictingChanges;
+            }
+        }
+
+        @Override
+        public boolean isConflicting() {
+            synchronized (CompactChangeStore.this) {
+                IntList ids = conflicts[index()];
+                return ids != null && ids.size > 0;
+            }
+        }
+
+        @Override
+        public Review getReview() {
+            synchronized (CompactChangeStore.this) {
+                return reviews[index()];
+            }
+        }
+
+        @Override
+        public void setReview(Review review) {
+            checkNotNull(review);
+            synchronized (CompactChangeStore.this) {
+                reviews[index()] = review;
+            }
+        }
+
+        @Override
+        public void setReviewStatus(ReviewStatus status) {
+            setReview(diffFactory.createReview(status, Optional.empty(), Optional.empty(), Optional.empty(), false));
+        }
+
+        @Override
+        public ReviewStatus getReviewStatus() {
+            Review review = getReview();
+            return (review == null ? ReviewStatus.PENDING : review.getStatus());
+        }
+
+        @Override
+        public Optional<OWLOntologyChange> getBaselineChange() {
+            synchronized (CompactChangeStore.this) {
+                return Optional.ofNullable(baselineChanges[index()]);
+            }
+        }
+
+        @Override
+        public void setBaselineChange(OWLOntologyChange change) {
+            checkNotNull(change);
+            synchronized (CompactChangeStore.this) {
+                baselineChanges[index()] = change;
+            }
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            CompactChange that = (CompactChange) o;
+            return id == that.id && generation == that.generation && getStore() == that.getStore();
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * generation + id;
+        }
+
+        private CompactChangeStore getStore() {
+            return CompactChangeStore.this;
+        }
+
+        @Override
+        public String toString() {
+            return MoreObjects.toStringHelper(this)
+                    .add("id", id)
+                    .add("generation", generation)
+                    .add("changes", getChanges())
+                    .add("commitMetadata", getCommitMetadata())
+                    .add("mode", getMode())
+                    .add("details", getDetails())
+                    .add("conflictingChanges", getConflictingChanges())
+                    .add("baselineChange", getBaselineChange())
+                    .add("review", getReview())
+                    .toString();
+        }
+
+        @Override
+        public int compareTo(Change that) {
+            return ComparisonChain.start()
+                    .compare(getDetails().getSubject(), that.getDetails().getSubject())
+                    .result();
+        }
+    }
+
+    /**
+     * Change identifier of a change in a compact change store, valid for one generation of the store
+     */
+    private static final class CompactChangeId implements ChangeId {
+        private final int id, generation;
+
+        CompactChangeId(int id, int generation) {
+            this.id = id;
+            this.generation = generation;
+        }
+
+        @Override
+        public String get() {
+            return generation + ":" + id;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            CompactChangeId that = (CompactChangeId) o;
+            return id == that.id && generation == that.generation;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * generation + id;
+        }
+
+        @Override
+        public String toString() {
+            return MoreObjects.toStringHelper(this)
+                    .add("id", id)
+                    .add("generation", generation)
+                    .toString();
+        }
+    }
+
+    /**
+     * Growable list of primitive ints
+     */
+    private static final class IntList {
+        private int[] values = new int[4];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size << 1);
+            }
+            values[size++] = value;
+        }
+
+        void addIfAbsent(int value) {
+            for (int i = 0; i < size; i++) {
+                if (values[i] == value) {
+                    return;
+                }
+            }
+            add(value);
+        }
+    }
+
+    /**
+     * Assigns consecutive int identifiers to distinct values
+     */
+    private static final class Interner<T> {
+        private final Map<T, Integer> ids = new HashMap<>();
+        private final List<T> values = new ArrayList<>();
+
+        int intern(T value) {
+            Integer id = ids.get(value);
+            if (id == null) {
+                id = values.size();
+                ids.put(value, id);
+                values.add(value);
+            }
+            return id;
+        }
+
+        int indexOf(T value) {
+            Integer id = ids.get(value);
+            return (id != null ? id : -1);
+        }
+
+        T get(int id) {
+            return values.get(id);
+        }
+
+        void clear() {
+            ids.clear();
+            values.clear();
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package org.protege.editor.owl.client.diff.model;
+
+import org.protege.owl.server.api.ChangeHistory;
+import org.protege.owl.server.api.ChangeMetaData;
+import org.protege.owl.server.api.OntologyDocumentRevision;
+import org.protege.owl.server.api.client.VersionedOntologyDocument;
+
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * An index over the revisions in the local history of a versioned ontology. The index is extended with the
+ * revisions that arrived since it was last updated, and is only rebuilt if the versioned ontology changes or
+ * its history no longer agrees with the last indexed revision
+ *
+ * @author Rafael Gonçalves <br>
+ * Stanford Center for Biomedical Informatics Research
+ */
+public abstract class HistoryIndex {
+    private VersionedOntologyDocument indexedDocument;
+    private OntologyDocumentRevision lastRevision;
+    private ChangeMetaData lastMetaData;
+
+    /**
+     * Bring the index up to date with the local history of the given versioned ontology
+     *
+     * @param vont  Versioned ontology document, if any
+     */
+    public synchronized void update(Optional<VersionedOntologyDocument> vont) {
+        if (!vont.isPresent()) {
+            clear();
+            return;
+        }
+        ChangeHistory changes = vont.get().getLocalHistory();
+        if (vont.get() != indexedDocument || !isLastRevisionUnchanged(changes)) {
+            clear();
+            indexedDocument = vont.get();
+        }
+        OntologyDocumentRevision rev = (lastRevision != null ? lastRevision.next() : changes.getStartRevision());
+        ChangeMetaData metaData;
+        while ((metaData = changes.getMetaData(rev)) != null) {
+            add(rev, metaData);
+            lastRevision = rev;
+            lastMetaData = metaData;
+            rev = rev.next();
+        }
+    }
+
+    private boolean isLastRevisionUnchanged(ChangeHistory changes) {
+        if (lastRevision == null) {
+            return true;
+        }
+        ChangeMetaData metaData = changes.getMetaData(lastRevision);
+        return metaData != null && Objects.equals(metaData.getUserId(), lastMetaData.getUserId()) &&
+                Objects.equals(metaData.getDate(), lastMetaData.getDate()) &&
+                Objects.equals(metaData.getCommitComment(), lastMetaData.getCommitComment());
+    }
+
+    /**
+     * Add the given revision to the index. Revisions are added in order
+     *
+     * @param revision  Revision
+     * @param metaData  Metadata of the commit that produced the revision
+     */
+    protected abstract void add(OntologyDocumentRevision revision, ChangeMetaData metaData);
+
+    /**
+     * Remove all indexed revisions
+     */
+    protected abstract void reset();
+
+    /**
+     * Clear the index
+     */
+    public synchronized void clear() {
+        reset();
+        indexedDocument = null;
+        lastRevision = null;
+        lastMetaData = null;
+    }
+}
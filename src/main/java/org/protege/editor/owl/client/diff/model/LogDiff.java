@@ -1,5 +1,7 @@
 package org.protege.editor.owl.client.diff.model;
 
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
 import com.google.common.collect.HashMultimap;
 import com.google.common.collect.Multimap;
 import org.protege.editor.owl.client.diff.DiffFactory;
@@ -14,27 +16,41 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.awt.*;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
 import java.util.*;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
 /**
+ * Computes the changes in the revision log of a versioned ontology. Only one diff pass runs at a time. A pass
+ * decodes revisions and detects conflicts without blocking readers, and only holds the write lock of the change
+ * store while it publishes the results of each revision, so the accessors can be called from the event dispatch
+ * thread while a pass is running
+ *
  * @author Rafael Gonçalves <br>
  * Stanford Center for Biomedical Informatics Research
  */
 public class LogDiff {
     private static final Logger log = LoggerFactory.getLogger(LogDiff.class);
+    private static final int DECODING_WINDOW_PER_THREAD = 4;
     private final LogDiffManager diffManager;
     private final OWLModelManager modelManager;
-    private Map<ChangeId, Change> changeMap = new HashMap<>();
-    private Multimap<UserId,ChangeId> changesByUser = HashMultimap.create();
-    private Multimap<Date,ChangeId> changesByDate = HashMultimap.create();
-    private Multimap<OWLObject,ChangeId> changesBySubject = HashMultimap.create();
+    private final ChangeStore store;
     private DiffFactory diffFactory;
+    private volatile VersionedOntologyDocument processedDocument;
+    private OntologyDocumentRevision lastRevision;
+    private ChangeMetaData lastMetaData;
+    private boolean parallelDecoding = false;
+    private Supplier<Map<IRI, OWLEntity>> entityIndex;
+    private final Map<Integer, RevisionIdentifiers> revisionIdentifiers = new ConcurrentHashMap<>();
+    private final Object refreshLock = new Object();
+    private final ReadWriteLock storeLock = new ReentrantReadWriteLock();
 
     /**
      * Constructor
@@ -43,75 +59,308 @@ public class LogDiff {
      * @param modelManager OWL model manager
      */
     public LogDiff(LogDiffManager diffManager, OWLModelManager modelManager) {
+        this(diffManager, modelManager, new MapChangeStore(LogDiffManager.getDiffFactory()));
+    }
+
+    /**
+     * Constructor
+     *
+     * @param diffManager  Diff manager
+     * @param modelManager OWL model manager
+     * @param store Change store
+     */
+    public LogDiff(LogDiffManager diffManager, OWLModelManager modelManager, ChangeStore store) {
         this.diffManager = checkNotNull(diffManager);
         this.modelManager = checkNotNull(modelManager);
+        this.store = checkNotNull(store);
         this.diffFactory = LogDiffManager.getDiffFactory();
     }
 
     /**
-     * Process all ontology revisions and compute changes
+     * Process the ontology revisions that have not been processed yet and compute their changes. The first call
+     * processes the whole local history; subsequent calls only fold in the revisions between the last processed
+     * revision and the current head, updating the change indices in place. If the active versioned ontology
+     * changed, or its history no longer agrees with the last processed revision, the diff is recomputed
      */
     public void initDiff() {
-        if (diffManager.getVersionedOntologyDocument().isPresent()) {
-            VersionedOntologyDocument vont = diffManager.getVersionedOntologyDocument().get();
-            OWLOntology ontology = modelManager.getActiveOntology();
-            ChangeHistory changes = vont.getLocalHistory();
-            OntologyDocumentRevision rev = changes.getStartRevision();
-            while (changes.getMetaData(rev) != null) {
-                ChangeMetaData metaData = changes.getMetaData(rev);
-                ChangeHistory hist = changes.cropChanges(rev, rev.next());
-                findRevisionChanges(hist.getChanges(ontology), metaData);
-                if(!rev.equals(OntologyDocumentRevision.START_REVISION)) {
-                    findBaselineMatches(changeMap.values());
-                    findConflits(changeMap.values());
+        initDiff((changes, processed, total) -> { });
+    }
+
+    /**
+     * Process the ontology revisions that have not been processed yet, as in {@link #initDiff()}, notifying the
+     * given listener as each revision is processed. If the calling thread is interrupted, processing stops after
+     * the current revision; the revisions processed so far are kept, and the remaining ones are processed by
+     * the next call
+     *
+     * @param listener  Progress listener
+     */
+    public void initDiff(LogDiffProgressListener listener) {
+        checkNotNull(listener);
+        synchronized (refreshLock) {
+            if (diffManager.getVersionedOntologyDocument().isPresent()) {
+                VersionedOntologyDocument vont = diffManager.getVersionedOntologyDocument().get();
+                OWLOntology ontology = modelManager.getActiveOntology();
+                ChangeHistory changes = vont.getLocalHistory();
+                if (!isValidFor(vont, changes)) {
+                    clear();
+                }
+                processedDocument = vont;
+                entityIndex = createEntityIndex(ontology);
+                Optional<LogDiffCache> cache = LogDiffCache.get(modelManager.getOWLOntologyManager().getOntologyDocumentIRI(ontology));
+                if (lastRevision == null && cache.isPresent()) {
+                    restore(cache.get(), vont, changes, ontology);
+                }
+                OntologyDocumentRevision lastCached = lastRevision;
+                OntologyDocumentRevision rev = (lastRevision != null ? lastRevision.next() : changes.getStartRevision());
+                int total = Math.max(0, changes.getEndRevision().getRevisionDifferenceFrom(rev));
+                if (parallelDecoding) {
+                    processRevisionsInParallel(changes, rev, ontology, listener, total);
+                } else {
+                    int processed = 0;
+                    while (changes.getMetaData(rev) != null && !Thread.currentThread().isInterrupted()) {
+                        List<Change> revisionChanges = mergeRevision(decodeRevision(changes, rev, changes.getMetaData(rev), ontology));
+                        listener.revisionProcessed(revisionChanges, ++processed, total);
+                        rev = rev.next();
+                    }
+                }
+                if (cache.isPresent() && lastRevision != null && !lastRevision.equals(lastCached)) {
+                    cache.get().saveLater(() -> createCacheSnapshot(vont));
                 }
-                rev = rev.next();
             }
+            else {
+                clear();
+            }
+        }
+    }
+
+    /**
+     * Process the revisions from the given one onward by decoding them on the fork-join pool, and merging
+     * the decoded revisions into the change indices (in revision order) on the calling thread. At most a
+     * bounded window of revisions is decoded ahead of the revision being merged
+     *
+     * @param changes   Change history
+     * @param start Revision from which to start
+     * @param ontology  OWL ontology
+     * @param listener  Progress listener
+     * @param total Total number of revisions to process
+     */
+    private void processRevisionsInParallel(ChangeHistory changes, OntologyDocumentRevision start, OWLOntology ontology,
+                                            LogDiffProgressListener listener, int total) {
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        int window = DECODING_WINDOW_PER_THREAD * pool.getParallelism();
+        Deque<ForkJoinTask<DecodedRevision>> pending = new ArrayDeque<>();
+        OntologyDocumentRevision next = start;
+        int processed = 0;
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                while (pending.size() < window && changes.getMetaData(next) != null) {
+                    OntologyDocumentRevision rev = next;
+                    ChangeMetaData metaData = changes.getMetaData(rev);
+                    pending.add(pool.submit(() -> decodeRevision(changes, rev, metaData, ontology)));
+                    next = next.next();
+                }
+                if (pending.isEmpty()) {
+                    break;
+                }
+                listener.revisionProcessed(mergeRevision(pending.poll().join()), ++processed, total);
+            }
+        } finally {
+            pending.forEach(task -> task.cancel(false));
+        }
+    }
+
+    /**
+     * Enable or disable decoding revisions in parallel on the fork-join pool. The resulting changes are the
+     * same in either mode, since decoded revisions are always merged in revision order
+     *
+     * @param parallelDecoding  true to decode revisions in parallel, false to decode them sequentially
+     */
+    public void setParallelDecoding(boolean parallelDecoding) {
+        this.parallelDecoding = parallelDecoding;
+    }
+
+    /**
+     * Check whether revisions are decoded in parallel
+     *
+     * @return true if revisions are decoded in parallel, false otherwise
+     */
+    public boolean isParallelDecoding() {
+        return parallelDecoding;
+    }
+
+    /**
+     * Restore the changes previously computed for the given versioned ontology from the given cache, if the
+     * cache is still valid for the local history
+     *
+     * @param cache Log diff cache
+     * @param vont  Versioned ontology document
+     * @param changes   Change history
+     * @param ontology  OWL ontology
+     */
+    private void restore(LogDiffCache cache, VersionedOntologyDocument vont, ChangeHistory changes, OWLOntology ontology) {
+        Lock lock = storeLock.writeLock();
+        lock.lock();
+        try {
+            Optional<OntologyDocumentRevision> cachedHead = cache.load(vont, changes, ontology, store, diffFactory);
+            if (cachedHead.isPresent()) {
+                lastRevision = cachedHead.get();
+                lastMetaData = changes.getMetaData(lastRevision);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Take a snapshot of the changes computed so far for the given versioned ontology, for the log diff cache.
+     * The snapshot is taken under the read lock, so it is consistent, but does not block other readers
+     *
+     * @param vont  Versioned ontology document
+     * @return Snapshot of the computed changes, or nothing if changes are no longer computed for the document
+     */
+    private Optional<LogDiffCache.Snapshot> createCacheSnapshot(VersionedOntologyDocument vont) {
+        Lock lock = storeLock.readLock();
+        lock.lock();
+        try {
+            if (vont != processedDocument || lastRevision == null) {
+                return Optional.empty();
+            }
+            return Optional.of(LogDiffCache.createSnapshot(vont, vont.getLocalHistory(), lastRevision, store.getChanges()));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Check whether the changes computed so far can be extended with the given history of the given
+     * versioned ontology, i.e., whether they were computed for the same document and the last processed
+     * revision is still present (and unchanged) in the history
+     *
+     * @param vont  Versioned ontology document
+     * @param changes   Change history
+     * @return true if the computed changes can be incrementally updated, false if they must be recomputed
+     */
+    private boolean isValidFor(VersionedOntologyDocument vont, ChangeHistory changes) {
+        if (lastRevision == null) {
+            return true;
+        }
+        if (vont != processedDocument) {
+            return false;
+        }
+        ChangeMetaData metaData = changes.getMetaData(lastRevision);
+        return metaData != null && Objects.equals(metaData.getUserId(), lastMetaData.getUserId()) &&
+                Objects.equals(metaData.getDate(), lastMetaData.getDate()) &&
+                Objects.equals(metaData.getCommitComment(), lastMetaData.getCommitComment());
+    }
+
+    /**
+     * Get the last ontology revision whose changes have been processed
+     *
+     * @return Last processed revision, if any
+     */
+    public Optional<OntologyDocumentRevision> getLastProcessedRevision() {
+        Lock lock = storeLock.readLock();
+        lock.lock();
+        try {
+            return Optional.ofNullable(lastRevision);
+        } finally {
+            lock.unlock();
         }
     }
 
     /**
-     * Compute the changes that occurred in the given commit
+     * Decode the changes that occurred in the given revision. This does not modify the state of the diff,
+     * so revisions can be decoded concurrently
      *
-     * @param ontChanges    List of OWL ontology changes
+     * @param changes   Change history
+     * @param rev   Revision to decode
      * @param metaData  Metadata regarding the commit
+     * @param ontology  OWL ontology
+     * @return Decoded revision
      */
-    private void findRevisionChanges(List<OWLOntologyChange> ontChanges, ChangeMetaData metaData) {
+    private DecodedRevision decodeRevision(ChangeHistory changes, OntologyDocumentRevision rev, ChangeMetaData metaData, OWLOntology ontology) {
+        List<OWLOntologyChange> ontChanges = changes.cropChanges(rev, rev.next()).getChanges(ontology);
         String commitComment = (metaData.getCommitComment() != null ? metaData.getCommitComment() : "");
-        // produce a revision tag that uses the hashcode of the commit metadata
-        RevisionTag revisionTag = getRevisionTag(metaData.hashCode() + "");
-        CommitMetadata commitMetadata = diffFactory.createCommitMetadata(diffFactory.createCommitId(metaData.hashCode()+""), metaData.getUserId(), metaData.getDate(), commitComment);
+        RevisionIdentifiers identifiers = getRevisionIdentifiers(rev);
+        RevisionTag revisionTag = identifiers.revisionTag;
+        CommitMetadata commitMetadata = diffFactory.createCommitMetadata(identifiers.commitId, metaData.getUserId(), metaData.getDate(), commitComment);
+        List<DecodedChange> decodedChanges = new ArrayList<>();
         Multimap<ChangeDetails, OWLOntologyChange> multimap = HashMultimap.create();
         ontChanges.stream().filter(ontChange -> !isCustomPropertyDeclaration(ontChange)).forEach(ontChange -> {
             if (isAnnotated(ontChange)) { // custom change
                 ChangeDetails details = getChangeDetailsFromAnnotatedAxiom(ontChange.getAxiom());
                 multimap.put(details, ontChange);
             } else {
-                Optional<Change> change = getChangeObject(ontChange, commitMetadata, revisionTag);
+                Optional<DecodedChange> change = decodeChange(ontChange, revisionTag);
                 if (change.isPresent()) {
-                    add(change.get());
+                    decodedChanges.add(change.get());
                 }
             }
         });
         for (ChangeDetails details : multimap.keySet()) {
             Set<OWLOntologyChange> changeList = (Set<OWLOntologyChange>) multimap.get(details);
-            Change c = diffFactory.createChange(changeList, details, commitMetadata, ChangeMode.CUSTOM);
-            add(c);
+            decodedChanges.add(new DecodedChange(changeList, details, ChangeMode.CUSTOM));
         }
+        return new DecodedRevision(rev, metaData, commitMetadata, decodedChanges);
     }
 
     /**
-     * Get a change object based on the given OWL ontology change, commit metadata and revision tag
+     * Add the changes of the given decoded revision to the change indices, and search for baseline matches
+     * and conflicts of those changes. The changes and their baseline matches are published under the write
+     * lock of the store; conflicts are searched for under the read lock, and then published. Since only the
+     * diff pass holding the refresh lock writes to the store, the store does not change in between
+     *
+     * @param revision  Decoded revision
+     * @return Changes of the revision that remain after baseline matching
+     */
+    private List<Change> mergeRevision(DecodedRevision revision) {
+        List<Change> revisionChanges = new ArrayList<>();
+        Lock writeLock = storeLock.writeLock();
+        writeLock.lock();
+        try {
+            for (DecodedChange decoded : revision.changes) {
+                revisionChanges.add(store.add(decoded.changes, decoded.details, revision.commitMetadata, decoded.mode));
+            }
+            findBaselineMatches(revisionChanges);
+            revisionChanges.removeIf(change -> !store.contains(change.getId()));
+        } finally {
+            writeLock.unlock();
+        }
+        Map<Change, Set<ChangeId>> conflicts;
+        Lock readLock = storeLock.readLock();
+        readLock.lock();
+        try {
+            conflicts = findConflicts(revisionChanges);
+        } finally {
+            readLock.unlock();
+        }
+        writeLock.lock();
+        try {
+            conflicts.forEach((change, conflicting) -> {
+                for (ChangeId id : conflicting) {
+                    change.addConflictingChange(id);
+                    store.get(id).addConflictingChange(change.getId());
+                }
+            });
+            lastRevision = revision.revision;
+            lastMetaData = revision.metaData;
+        } finally {
+            writeLock.unlock();
+        }
+        return revisionChanges;
+    }
+
+    /**
+     * Decode the given OWL ontology change into the details of a (built-in type) change
      *
      * @param ontChange OWL ontology change
-     * @param commitMetadata    Commit metadata
      * @param revisionTag   Revision tag
-     * @return Change instance
+     * @return Decoded change
      */
-    private Optional<Change> getChangeObject(OWLOntologyChange ontChange, CommitMetadata commitMetadata, RevisionTag revisionTag) {
+    private Optional<DecodedChange> decodeChange(OWLOntologyChange ontChange, RevisionTag revisionTag) {
         Set<OWLOntologyChange> changeAxiomSet = new HashSet<>();
         changeAxiomSet.add(ontChange);
-        Change change = null;
+        DecodedChange change = null;
         if (ontChange.isAxiomChange()) {
             OWLAxiom axiom = ontChange.getAxiom();
             OntologyChangeVisitor visitor = new OntologyChangeVisitor();
@@ -120,26 +369,26 @@ public class LogDiff {
             if (ce != null) {
                 ChangeDetails changeDetails = diffFactory.createChangeDetails(revisionTag, visitor.getChangeSubject(),
                         visitor.getChangeType(), visitor.getProperty(), visitor.getChangeObject());
-                change = diffFactory.createChange(changeAxiomSet, changeDetails, commitMetadata, getChangeMode(ontChange));
+                change = new DecodedChange(changeAxiomSet, changeDetails, getChangeMode(ontChange));
             }
         } else if (ontChange.isImportChange()) {
             ImportChange importChange = (ImportChange) ontChange;
             OWLImportsDeclaration importDecl = importChange.getImportDeclaration();
             ChangeDetails changeDetails = diffFactory.createChangeDetails(revisionTag, ontChange.getOntology().getOntologyID().getOntologyIRI().get(),
                     BuiltInChangeType.IMPORT, Optional.empty(), Optional.of(getQuotedIri(importDecl.getIRI())));
-            change = diffFactory.createChange(changeAxiomSet, changeDetails, commitMetadata, getChangeMode(ontChange));
+            change = new DecodedChange(changeAxiomSet, changeDetails, getChangeMode(ontChange));
         } else if (ontChange instanceof AnnotationChange) { // possible OWLOntologyChange type not covered by OWLOntologyChange.isXXX() methods
             AnnotationChange annotationChange = (AnnotationChange) ontChange;
             OWLAnnotation annotation = annotationChange.getAnnotation();
             ChangeDetails changeDetails = diffFactory.createChangeDetails(revisionTag, ontChange.getOntology().getOntologyID().getOntologyIRI().get(),
                     BuiltInChangeType.ONTOLOGY_ANNOTATION, Optional.of(annotation.getProperty()), Optional.of(annotation.getValue().toString()));
-            change = diffFactory.createChange(changeAxiomSet, changeDetails, commitMetadata, getChangeMode(ontChange));
+            change = new DecodedChange(changeAxiomSet, changeDetails, getChangeMode(ontChange));
         } else if (ontChange instanceof SetOntologyID) { // another possible OWLOntologyChange not covered by OWLOntologyChange.isXXX() methods
             SetOntologyID setOntologyID = (SetOntologyID) ontChange;
             IRI newIri = setOntologyID.getNewOntologyID().getOntologyIRI().get();
             ChangeDetails changeDetails = diffFactory.createChangeDetails(revisionTag, setOntologyID.getNewOntologyID().getOntologyIRI().get(),
                     BuiltInChangeType.ONTOLOGY_IRI, Optional.empty(), Optional.of(getQuotedIri(newIri)));
-            change = diffFactory.createChange(changeAxiomSet, changeDetails, commitMetadata, ChangeMode.ONTOLOGY_IRI);
+            change = new DecodedChange(changeAxiomSet, changeDetails, ChangeMode.ONTOLOGY_IRI);
         } else {
             log.error("Unhandled ontology change type for change: " + ontChange);
         }
@@ -202,13 +451,11 @@ public class LogDiff {
         }
         else if(event.equals(LogDiffEvent.COMMIT_SELECTION_CHANGED)) {
             CommitMetadata metadata = diffManager.getSelectedCommit();
-            Collection<ChangeId> dateChangeIds = changesByDate.get(metadata.getDate());
-            changes = getChangesForCommit(metadata, dateChangeIds);
+            changes = getChangesForCommit(metadata.getCommitId());
         }
         else if(event.equals(LogDiffEvent.ONTOLOGY_UPDATED)) {
-            clear();
             initDiff();
-            changes = changeMap.values().stream().collect(Collectors.toList());
+            changes = new ArrayList<>(getChanges());
         }
         return changes;
     }
@@ -248,25 +495,28 @@ public class LogDiff {
     }
 
     /**
-     * Get a revision tag by hashing the given string
+     * Get the identifier of the commit that produced the given revision
      *
-     * @param string    Revision tag string
-     * @return Revision tag
+     * @param revision  Ontology document revision
+     * @return Commit identifier
      */
-    private RevisionTag getRevisionTag(String string) {
-        MessageDigest md = null;
-        try {
-            md = MessageDigest.getInstance("MD5");
-        } catch (NoSuchAlgorithmException e) {
-            e.printStackTrace();
-        }
-        md.update(string.getBytes());
-        byte[] digestBytes = md.digest();
-        StringBuilder sb = new StringBuilder();
-        for (byte b : digestBytes) {
-            sb.append(String.format("%02x", b & 0xff));
-        }
-        return diffFactory.createRevisionTag(sb.toString().substring(0, 8));
+    public CommitId getCommitId(OntologyDocumentRevision revision) {
+        return getRevisionIdentifiers(revision).commitId;
+    }
+
+    /**
+     * Get the revision tag and commit identifier of the given revision. Both are derived from the revision
+     * number, which is stable across sessions and clients, and are created once per revision
+     *
+     * @param revision  Ontology document revision
+     * @return Revision identifiers
+     */
+    private RevisionIdentifiers getRevisionIdentifiers(OntologyDocumentRevision revision) {
+        int revisionNumber = revision.getRevisionDifferenceFrom(OntologyDocumentRevision.START_REVISION);
+        return revisionIdentifiers.computeIfAbsent(revisionNumber, n -> {
+            String id = Integer.toString(n);
+            return new RevisionIdentifiers(diffFactory.createRevisionTag(id), diffFactory.createCommitId(id));
+        });
     }
 
     /**
@@ -276,14 +526,7 @@ public class LogDiff {
      * @return OWL entity
      */
     private OWLEntity getEntityFromIri(IRI iri) {
-        OWLEntity entity = null;
-        Set<OWLEntity> sig = modelManager.getActiveOntology().getSignature();
-        for (OWLEntity e : sig) {
-            if (e.getIRI().equals(iri)) {
-                entity = e;
-                break;
-            }
-        }
+        OWLEntity entity = entityIndex.get().get(iri);
         if (entity == null) {
             log.error("The given IRI does not exist in active ontology (" + iri.toString() + ")");
         }
@@ -291,41 +534,67 @@ public class LogDiff {
     }
 
     /**
-     * Find conflicting changes within the specified collection of changes
+     * Create an index from IRIs to the OWL entities in the signature of the given ontology. The index is
+     * built lazily, at most once per diff pass, so passes that decode no custom changes do not pay for it
      *
-     * @param searchSpace   Collection of changes within which to search
+     * @param ontology  OWL ontology
+     * @return Supplier of the IRI to OWL entity index
      */
-    private void findConflits(Collection<Change> searchSpace) {
+    private Supplier<Map<IRI, OWLEntity>> createEntityIndex(OWLOntology ontology) {
+        return Suppliers.memoize(() -> {
+            Map<IRI, OWLEntity> index = new HashMap<>();
+            for (OWLEntity e : ontology.getSignature()) {
+                index.putIfAbsent(e.getIRI(), e);
+            }
+            return index;
+        });
+    }
+
+    /**
+     * Find the changes that conflict with the given (newly added) changes. The conflict search for each change
+     * is restricted to the changes on the same subject. Since conflicts are symmetric, the caller records
+     * each change as conflicting with the changes found, and vice versa
+     *
+     * @param changes   Collection of newly added changes
+     * @return Map of changes to the identifiers of the changes they conflict with
+     */
+    private Map<Change, Set<ChangeId>> findConflicts(Collection<Change> changes) {
         ConflictDetector conflictDetector = new SimpleConflictDetector();
-        for (Change change : searchSpace) {
-            List<Change> subjectChanges = getChangesForSubject(change.getDetails().getSubject());
+        Map<Change, Set<ChangeId>> conflicts = new HashMap<>();
+        for (Change change : changes) {
+            List<Change> subjectChanges = store.getChangesForSubject(change.getDetails().getSubject());
             Set<ChangeId> conflicting = conflictDetector.getConflictingChanges(change, subjectChanges);
-            conflicting.forEach(change::addConflictingChange);
-            changeMap.put(change.getId(), change);
+            if (!conflicting.isEmpty()) {
+                conflicts.put(change, conflicting);
+            }
         }
+        return conflicts;
     }
 
     public Change getChange(ChangeId changeId) {
-        return changeMap.get(changeId);
+        Lock lock = storeLock.readLock();
+        lock.lock();
+        try {
+            return store.get(changeId);
+        } finally {
+            lock.unlock();
+        }
     }
 
     /**
-     * Get a list of changes (within the given change collection) that occurred in the specified commit
+     * Get the collection of changes in the commit with the specified identifier
      *
-     * @param metadata  Commit metadata
-     * @param searchSpace   Collection of change identifiers that constitutes the search space within
-     *                      which to look for changes
+     * @param commitId  Commit identifier
      * @return List of changes
      */
-    private List<Change> getChangesForCommit(CommitMetadata metadata, Collection<ChangeId> searchSpace) {
-        List<Change> changes = new ArrayList<>();
-        for (ChangeId id : searchSpace) {
-            Change c = changeMap.get(id);
-            if (c.getCommitMetadata().getCommitId().equals(metadata.getCommitId())) {
-                changes.add(c);
-            }
+    public List<Change> getChangesForCommit(CommitId commitId) {
+        Lock lock = storeLock.readLock();
+        lock.lock();
+        try {
+            return store.getChangesForCommit(commitId);
+        } finally {
+            lock.unlock();
         }
-        return changes;
     }
 
     /**
@@ -335,8 +604,13 @@ public class LogDiff {
      * @return Collection of changes
      */
     public List<Change> getChangesForSubject(OWLObject owlObject) {
-        Collection<ChangeId> changeIds = changesBySubject.get(owlObject);
-        return changeIds.stream().map(id -> changeMap.get(id)).collect(Collectors.toList());
+        Lock lock = storeLock.readLock();
+        lock.lock();
+        try {
+            return store.getChangesForSubject(owlObject);
+        } finally {
+            lock.unlock();
+        }
     }
 
     /**
@@ -346,26 +620,35 @@ public class LogDiff {
      * @return List of changes
      */
     public List<Change> getChangesForUser(UserId userId) {
-        if (userId.equals(LogDiffManager.ALL_AUTHORS)) {
-            return changeMap.keySet().stream().map(id -> changeMap.get(id)).collect(Collectors.toList());
-        } else {
-            Collection<ChangeId> changeIds = changesByUser.get(userId);
-            return changeIds.stream().map(id -> changeMap.get(id)).collect(Collectors.toList());
+        Lock lock = storeLock.readLock();
+        lock.lock();
+        try {
+            if (userId.equals(LogDiffManager.ALL_AUTHORS)) {
+                return new ArrayList<>(store.getChanges());
+            } else {
+                return store.getChangesForUser(userId);
+            }
+        } finally {
+            lock.unlock();
         }
     }
 
     /**
-     * Search for previous values of the given changes
+     * Search for previous values of the given changes. Since a baseline change is always part of the same
+     * commit as the change it is aligned with, only the changes of a single commit need to be given
      *
      * @param changes   Set of changes
      */
     private void findBaselineMatches(Collection<Change> changes) {
         Set<Change> toRemove = new HashSet<>();
+        Map<CommitId, Multimap<OWLObject, Change>> commitChanges = new HashMap<>();
         for (Change c : changes) {
             // only modify addition; the corresponding removal will be the "baseline" for the (addition) change,
             // and will get removed after an alignment is established
             if (c.getDetails().getType().isBuiltInType() && c.getMode().equals(ChangeMode.ADDITION)) {
-                Set<Change> matches = getMatchingChanges(c);
+                Multimap<OWLObject, Change> changesBySubject =
+                        commitChanges.computeIfAbsent(c.getCommitMetadata().getCommitId(), this::getChangesBySubject);
+                Set<Change> matches = getMatchingChanges(c, changesBySubject);
                 if (matches.size() == 1) {
                     Change c2 = matches.iterator().next();
                     if (((c.isOfType(BuiltInChangeType.ANNOTATION) || c.isOfType(BuiltInChangeType.ONTOLOGY_ANNOTATION))
@@ -378,21 +661,34 @@ public class LogDiff {
                 }
             }
         }
-        toRemove.forEach(this::remove);
+        toRemove.forEach(store::remove);
+    }
+
+    /**
+     * Get the changes in the given commit, indexed by their subject
+     *
+     * @param commitId  Commit identifier
+     * @return Multimap of change subjects to changes
+     */
+    private Multimap<OWLObject, Change> getChangesBySubject(CommitId commitId) {
+        Multimap<OWLObject, Change> changesBySubject = HashMultimap.create();
+        for (Change change : store.getChangesForCommit(commitId)) {
+            changesBySubject.put(change.getDetails().getSubject(), change);
+        }
+        return changesBySubject;
     }
 
     /**
      * Search for changes that can be aligned with the given one
      *
      * @param c Change
+     * @param commitChanges Changes in the same commit as the given change, indexed by subject
      * @return Set of changes that match with given one
      */
-    private Set<Change> getMatchingChanges(Change c) {
+    private Set<Change> getMatchingChanges(Change c, Multimap<OWLObject, Change> commitChanges) {
         Set<Change> matches = new HashSet<>();
-        CommitMetadata commitMetadata = c.getCommitMetadata();
         ChangeDetails changeDetails = c.getDetails();
-        Collection<ChangeId> changes = changesBySubject.get(changeDetails.getSubject());
-        for (Change change : getChangesForCommit(commitMetadata, changes)) {
+        for (Change change : commitChanges.get(changeDetails.getSubject())) {
             if (change.getDetails().getType().equals(changeDetails.getType())) {
                 if (isMatchable(c, change)) {
                     // TODO: match RHS expression types for axioms that can be reduced to SubClassOf axioms
@@ -464,48 +760,80 @@ public class LogDiff {
     }
 
     /**
-     * Get the collection of all changes
+     * Get a snapshot of the collection of all changes
      *
      * @return Collection of changes
      */
     public Collection<Change> getChanges() {
-        return changeMap.values();
+        Lock lock = storeLock.readLock();
+        lock.lock();
+        try {
+            return new ArrayList<>(store.getChanges());
+        } finally {
+            lock.unlock();
+        }
     }
 
     /**
-     * Add a change to change data structures
-     *
-     * @param change Change
+     * Clear all changes. This waits for a running diff pass to finish
      */
-    private void add(Change change) {
-        CommitMetadata commitMetadata = change.getCommitMetadata();
-        changeMap.put(change.getId(), change);
-        changesByUser.put(commitMetadata.getAuthor(), change.getId());
-        changesByDate.put(commitMetadata.getDate(), change.getId());
-        changesBySubject.put(change.getDetails().getSubject(), change.getId());
+    public void clear() {
+        synchronized (refreshLock) {
+            Lock lock = storeLock.writeLock();
+            lock.lock();
+            try {
+                store.clear();
+                processedDocument = null;
+                lastRevision = null;
+                lastMetaData = null;
+            } finally {
+                lock.unlock();
+            }
+        }
     }
 
     /**
-     * Remove a change from the change data structures
-     *
-     * @param change Change
+     * The revision tag and commit identifier of a revision
      */
-    private void remove(Change change) {
-        ChangeId id = change.getId();
-        CommitMetadata commitMetadata = change.getCommitMetadata();
-        changeMap.remove(id);
-        changesByUser.remove(commitMetadata.getAuthor(), id);
-        changesByDate.remove(commitMetadata.getDate(), id);
-        changesBySubject.remove(change.getDetails().getSubject(), id);
+    private static final class RevisionIdentifiers {
+        private final RevisionTag revisionTag;
+        private final CommitId commitId;
+
+        RevisionIdentifiers(RevisionTag revisionTag, CommitId commitId) {
+            this.revisionTag = revisionTag;
+            this.commitId = commitId;
+        }
     }
 
     /**
-     * Clear all changes
+     * The changes decoded from a single revision, which have yet to be added to the change indices
      */
-    public void clear() {
-        changeMap.clear();
-        changesByUser.clear();
-        changesByDate.clear();
-        changesBySubject.clear();
+    private static final class DecodedRevision {
+        private final OntologyDocumentRevision revision;
+        private final ChangeMetaData metaData;
+        private final CommitMetadata commitMetadata;
+        private final List<DecodedChange> changes;
+
+        DecodedRevision(OntologyDocumentRevision revision, ChangeMetaData metaData, CommitMetadata commitMetadata, List<DecodedChange> changes) {
+            this.revision = revision;
+            this.metaData = metaData;
+            this.commitMetadata = commitMetadata;
+            this.changes = changes;
+        }
+    }
+
+    /**
+     * A decoded change, i.e., the OWL ontology changes, details and mode of a change that has yet to be created
+     */
+    private static final class DecodedChange {
+        private final Set<OWLOntologyChange> changes;
+        private final ChangeDetails details;
+        private final ChangeMode mode;
+
+        DecodedChange(Set<OWLOntologyChange> changes, ChangeDetails details, ChangeMode mode) {
+            this.changes = changes;
+            this.details = details;
+            this.mode = mode;
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,362 @@
+package org.protege.editor.owl.client.diff.model;
+
+import org.protege.editor.owl.client.diff.DiffFactory;
+import org.protege.owl.server.api.ChangeHistory;
+import org.protege.owl.server.api.ChangeMetaData;
+import org.protege.owl.server.api.OntologyDocumentRevision;
+import org.protege.owl.server.api.UserId;
+import org.protege.owl.server.api.client.VersionedOntologyDocument;
+import org.semanticweb.owlapi.change.OWLOntologyChangeData;
+import org.semanticweb.owlapi.model.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.awt.*;
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * A disk-backed cache of the changes computed by {@link LogDiff}, stored alongside the client metadata of
+ * a versioned ontology document. The cache is keyed by the server document and the last processed revision,
+ * and is only used if the local history still agrees with the cached head revision. Saves are written behind,
+ * on a background thread, and the save requests made while a save is pending are folded into that save
+ *
+ * @author Rafael Gonçalves <br>
+ * Stanford Center for Biomedical Informatics Research
+ */
+public class LogDiffCache {
+    private static final Logger log = LoggerFactory.getLogger(LogDiffCache.class);
+    private static final int FORMAT_VERSION = 3;
+    private static final String METADATA_DIRECTORY = ".owlserver";
+    private static final String CACHE_FILE_EXTENSION = ".logdiff";
+    private static final long SAVE_DELAY = 5000; // milliseconds
+    private static final ScheduledExecutorService writer = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "Log Diff Cache Writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private static final ConcurrentMap<File, Supplier<Optional<Snapshot>>> pendingSaves = new ConcurrentHashMap<>();
+    private final File file;
+
+    /**
+     * Constructor
+     *
+     * @param file  Cache file
+     */
+    public LogDiffCache(File file) {
+        this.file = checkNotNull(file);
+    }
+
+    /**
+     * Get the cache for the ontology stored in the given document, if the document is a local file
+     *
+     * @param documentIri   Ontology document IRI
+     * @return Log diff cache
+     */
+    public static Optional<LogDiffCache> get(IRI documentIri) {
+        if (documentIri == null || !"file".equalsIgnoreCase(documentIri.getScheme())) {
+            return Optional.empty();
+        }
+        File ontologyFile = new File(documentIri.toURI());
+        File directory = new File(ontologyFile.getParentFile(), METADATA_DIRECTORY);
+        return Optional.of(new LogDiffCache(new File(directory, ontologyFile.getName() + CACHE_FILE_EXTENSION)));
+    }
+
+    /**
+     * Load the cached changes into the given (empty) change store, provided they were computed for the given
+     * versioned ontology and the given history still contains the cached head revision unchanged. An invalid
+     * cache is deleted
+     *
+     * @param vont  Versioned ontology document
+     * @param history   Local change history
+     * @param ontology  OWL ontology to which restored OWL ontology changes apply
+     * @param store Change store
+     * @param diffFactory   Diff factory
+     * @return Last revision processed in the cached changes, if the cache exists and is valid
+     */
+    public Optional<OntologyDocumentRevision> load(VersionedOntologyDocument vont, ChangeHistory history, OWLOntology ontology,
+                                                   ChangeStore store, DiffFactory diffFactory) {
+        if (!file.exists()) {
+            return Optional.empty();
+        }
+        try (ObjectInputStream in = new ObjectInputStream(new BufferedInputStream(new GZIPInputStream(new FileInputStream(file))))) {
+            Header header = (Header) in.readObject();
+            if (!header.isValidFor(vont, history)) {
+                log.info("Discarding revision log diff cache " + file + " as the local history has changed");
+                delete();
+                return Optional.empty();
+            }
+            @SuppressWarnings("unchecked")
+            List<CachedCommit> commits = (List<CachedCommit>) in.readObject();
+            @SuppressWarnings("unchecked")
+            List<CachedChange> cachedChanges = (List<CachedChange>) in.readObject();
+            List<CommitMetadata> commitMetadata = new ArrayList<>(commits.size());
+            for (CachedCommit c : commits) {
+                commitMetadata.add(diffFactory.createCommitMetadata(diffFactory.createCommitId(c.commitId), c.author, c.date, c.comment));
+            }
+            List<Change> changes = new ArrayList<>(cachedChanges.size());
+            for (CachedChange c : cachedChanges) {
+                changes.add(c.addTo(store, commitMetadata, ontology, diffFactory));
+            }
+            for (int i = 0; i < cachedChanges.size(); i++) {
+                for (int conflict : cachedChanges.get(i).conflicts) {
+                    changes.get(i).addConflictingChange(changes.get(conflict).getId());
+                }
+            }
+            return Optional.of(header.getHeadRevision());
+        } catch (IOException | ClassNotFoundException | ClassCastException e) {
+            log.warn("Unable to read revision log diff cache " + file + "; the diff will be recomputed", e);
+            store.clear();
+            delete();
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Save a snapshot of the computed changes after a delay, on a background thread. The given supplier is
+     * called when the save runs, and should return the snapshot of the changes computed by then, or nothing
+     * if there is nothing to save. A request made while a save of the same cache is pending replaces the
+     * supplier of that save
+     *
+     * @param snapshot  Supplier of the snapshot to save
+     */
+    public void saveLater(Supplier<Optional<Snapshot>> snapshot) {
+        checkNotNull(snapshot);
+        if (pendingSaves.put(file, snapshot) == null) {
+            writer.schedule(() -> {
+                Supplier<Optional<Snapshot>> latest = pendingSaves.remove(file);
+                try {
+                    latest.get().ifPresent(this::save);
+                } catch (RuntimeException e) {
+                    log.warn("Unable to write revision log diff cache " + file, e);
+                }
+            }, SAVE_DELAY, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Take a snapshot of the given changes, computed for the given versioned ontology up to (and including)
+     * the given revision. The caller must ensure the changes are not modified while the snapshot is taken
+     *
+     * @param vont  Versioned ontology document
+     * @param history   Local change history
+     * @param headRevision  Last processed revision
+     * @param changes   Computed changes
+     * @return Snapshot of the changes
+     */
+    public static Snapshot createSnapshot(VersionedOntologyDocument vont, ChangeHistory history, OntologyDocumentRevision headRevision,
+                                          Collection<Change> changes) {
+        Header header = new Header(vont, history, headRevision);
+        Map<ChangeId, Integer> changeIndex = new HashMap<>();
+        for (Change c : changes) {
+            changeIndex.put(c.getId(), changeIndex.size());
+        }
+        Map<CommitId, Integer> commitIndex = new HashMap<>();
+        List<CachedCommit> commits = new ArrayList<>();
+        List<CachedChange> cachedChanges = new ArrayList<>(changes.size());
+        for (Change c : changes) {
+            CommitMetadata metadata = c.getCommitMetadata();
+            Integer commit = commitIndex.get(metadata.getCommitId());
+            if (commit == null) {
+                commit = commits.size();
+                commitIndex.put(metadata.getCommitId(), commit);
+                commits.add(new CachedCommit(metadata));
+            }
+            cachedChanges.add(new CachedChange(c, commit, changeIndex));
+        }
+        return new Snapshot(header, commits, cachedChanges);
+    }
+
+    /**
+     * Write the given snapshot to the cache file
+     *
+     * @param snapshot  Snapshot of computed changes
+     */
+    public void save(Snapshot snapshot) {
+        File directory = file.getParentFile();
+        File tmp = null;
+        try {
+            if (!directory.exists() && !directory.mkdirs()) {
+                throw new IOException("Could not create directory " + directory);
+            }
+            tmp = File.createTempFile(file.getName(), ".tmp", directory);
+            try (ObjectOutputStream out = new ObjectOutputStream(new BufferedOutputStream(new GZIPOutputStream(new FileOutputStream(tmp))))) {
+                out.writeObject(snapshot.header);
+                out.writeObject(snapshot.commits);
+                out.writeObject(snapshot.changes);
+            }
+            Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("Unable to write revision log diff cache " + file, e);
+        } finally {
+            if (tmp != null && tmp.exists() && !tmp.delete()) {
+                log.warn("Unable to delete temporary file " + tmp);
+            }
+        }
+    }
+
+    /**
+     * Delete the cache file
+     */
+    public void delete() {
+        if (file.exists() && !file.delete()) {
+            log.warn("Unable to delete revision log diff cache " + file);
+        }
+    }
+
+    /**
+     * Get the cache file
+     *
+     * @return Cache file
+     */
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * Snapshot of computed changes, ready to be written to the cache
+     */
+    public static final class Snapshot {
+        private final Header header;
+        private final List<CachedCommit> commits;
+        private final List<CachedChange> changes;
+
+        private Snapshot(Header header, List<CachedCommit> commits, List<CachedChange> changes) {
+            this.header = header;
+            this.commits = commits;
+            this.changes = changes;
+        }
+    }
+
+    /**
+     * Cache header, which identifies the server document, the range of revisions processed and the
+     * metadata of the head revision, used to detect histories that have been rewritten
+     */
+    private static final class Header implements Serializable {
+        private static final long serialVersionUID = -4061466787354437305L;
+        private final int formatVersion;
+        private final String serverLocation;
+        private final int startRevision, headRevision;
+        private final UserId headAuthor;
+        private final Date headDate;
+        private final String headComment;
+
+        Header(VersionedOntologyDocument vont, ChangeHistory history, OntologyDocumentRevision head) {
+            ChangeMetaData metaData = history.getMetaData(head);
+            this.formatVersion = FORMAT_VERSION;
+            this.serverLocation = vont.getServerDocument().getServerLocation().toString();
+            this.startRevision = getRevisionNumber(history.getStartRevision());
+            this.headRevision = getRevisionNumber(head);
+            this.headAuthor = metaData.getUserId();
+            this.headDate = metaData.getDate();
+            this.headComment = metaData.getCommitComment();
+        }
+
+        OntologyDocumentRevision getHeadRevision() {
+            return OntologyDocumentRevision.START_REVISION.add(headRevision);
+        }
+
+        boolean isValidFor(VersionedOntologyDocument vont, ChangeHistory history) {
+            if (formatVersion != FORMAT_VERSION || !serverLocation.equals(vont.getServerDocument().getServerLocation().toString()) ||
+                    startRevision != getRevisionNumber(history.getStartRevision())) {
+                return false;
+            }
+            ChangeMetaData metaData = history.getMetaData(getHeadRevision());
+            return metaData != null && Objects.equals(metaData.getUserId(), headAuthor) &&
+                    Objects.equals(metaData.getDate(), headDate) && Objects.equals(metaData.getCommitComment(), headComment);
+        }
+
+        private static int getRevisionNumber(OntologyDocumentRevision revision) {
+            return revision.getRevisionDifferenceFrom(OntologyDocumentRevision.START_REVISION);
+        }
+    }
+
+    /**
+     * Cached commit metadata
+     */
+    private static final class CachedCommit implements Serializable {
+        private static final long serialVersionUID = 2897465416011750213L;
+        private final String commitId;
+        private final UserId author;
+        private final Date date;
+        private final String comment;
+
+        CachedCommit(CommitMetadata metadata) {
+            this.commitId = metadata.getCommitId().get();
+            this.author = metadata.getAuthor();
+            this.date = metadata.getDate();
+            this.comment = metadata.getComment();
+        }
+    }
+
+    /**
+     * Cached change, where the commit and conflicting changes are referred to by their position in the cache
+     */
+    private static final class CachedChange implements Serializable {
+        private static final long serialVersionUID = -1573318129652386215L;
+        private final int commit;
+        private final ArrayList<OWLOntologyChangeData> changes = new ArrayList<>();
+        private final ChangeMode mode;
+        private final String revisionTag;
+        private final OWLObject subject, property;
+        private final String newValue;
+        private final BuiltInChangeType builtInType;
+        private final String customType;
+        private final Integer customTypeColor;
+        private final OWLOntologyChangeData baselineChange;
+        private final int[] conflicts;
+
+        CachedChange(Change change, int commit, Map<ChangeId, Integer> changeIndex) {
+            ChangeDetails details = change.getDetails();
+            this.commit = commit;
+            for (OWLOntologyChange c : change.getChanges()) {
+                changes.add(c.getChangeData());
+            }
+            this.mode = change.getMode();
+            this.revisionTag = details.getRevisionTag().getTag();
+            this.subject = details.getSubject();
+            this.property = details.getProperty().orElse(null);
+            this.newValue = details.getNewValue().orElse(null);
+            if (details.getType() instanceof BuiltInChangeType) {
+                this.builtInType = (BuiltInChangeType) details.getType();
+                this.customType = null;
+                this.customTypeColor = null;
+            } else {
+                this.builtInType = null;
+                this.customType = details.getType().getDisplayName();
+                this.customTypeColor = details.getType().getDisplayColor().map(Color::getRGB).orElse(null);
+            }
+            this.baselineChange = change.getBaselineChange().map(OWLOntologyChange::getChangeData).orElse(null);
+            this.conflicts = change.getConflictingChanges().stream().filter(changeIndex::containsKey).mapToInt(changeIndex::get).toArray();
+        }
+
+        Change addTo(ChangeStore store, List<CommitMetadata> commits, OWLOntology ontology, DiffFactory diffFactory) {
+            Set<OWLOntologyChange> ontChanges = new HashSet<>();
+            for (OWLOntologyChangeData data : changes) {
+                ontChanges.add(data.createOntologyChange(ontology));
+            }
+            ChangeType type = (builtInType != null ? builtInType :
+                    new CustomChangeType(customType, Optional.ofNullable(customTypeColor).map(Color::new)));
+            ChangeDetails details = diffFactory.createChangeDetails(diffFactory.createRevisionTag(revisionTag), subject, type,
+                    Optional.ofNullable(property), Optional.ofNullable(newValue));
+            Change change = store.add(ontChanges, details, commits.get(commit), mode);
+            if (baselineChange != null) {
+                change.setBaselineChange(baselineChange.createOntologyChange(ontology));
+            }
+            return change;
+        }
+    }
+}
@@ -3,13 +3,11 @@ package org.protege.editor.owl.client.diff.model;
 import org.protege.editor.core.Disposable;
 import org.protege.editor.core.ui.error.ErrorLogPanel;
 import org.protege.editor.owl.OWLEditorKit;
+import org.protege.editor.owl.client.ClientPreferences;
 import org.protege.editor.owl.client.connect.ServerConnectionManager;
 import org.protege.editor.owl.client.diff.DiffFactory;
 import org.protege.editor.owl.client.diff.DiffFactoryImpl;
 import org.protege.editor.owl.model.OWLModelManager;
-import org.protege.owl.server.api.ChangeHistory;
-import org.protege.owl.server.api.ChangeMetaData;
-import org.protege.owl.server.api.OntologyDocumentRevision;
 import org.protege.owl.server.api.UserId;
 import org.protege.owl.server.api.client.Client;
 import org.protege.owl.server.api.client.VersionedOntologyDocument;
@@ -27,16 +25,18 @@ import static com.google.common.base.Preconditions.checkNotNull;
  */
 public class LogDiffManager implements Disposable {
     public static final UserId ALL_AUTHORS = new UserId("All Authors");
-    private static DiffFactory diffFactory = new DiffFactoryImpl();
+    private static DiffFactory diffFactory = new DiffFactoryImpl(true);
     private Set<LogDiffListener> listeners = new HashSet<>();
     private List<Change> selectedChanges = new ArrayList<>();
-    private List<CommitMetadata> commits = new ArrayList<>();
+    private final AuthorIndex authorIndex = new AuthorIndex();
+    private CommitIndex commitIndex;
     private ReviewManager reviewManager;
     private OWLModelManager modelManager;
     private OWLEditorKit editorKit;
     private UserId selectedAuthor;
     private CommitMetadata selectedCommit;
     private LogDiff diff;
+    private LogDiffRefreshScheduler refreshScheduler;
 
     /**
      * Get the LogDiff manager
@@ -129,28 +129,55 @@ public class LogDiffManager implements Disposable {
     }
 
     public void setSelectedCommitToLatest() {
-        setSelectedCommit(commits.get(0));
+        CommitIndex index = getCommitIndex();
+        index.update(getVersionedOntologyDocument());
+        index.getLatestCommit().ifPresent(this::setSelectedCommit);
     }
 
+    /**
+     * Get the authors of the revisions in the local history of the active versioned ontology, sorted by
+     * user identifier. The underlying index is only extended with the revisions that arrived since the last call
+     *
+     * @return List of authors
+     */
+    public List<UserId> getAuthors() {
+        authorIndex.update(getVersionedOntologyDocument());
+        return authorIndex.getAuthors();
+    }
+
+    /**
+     * Get the commit statistics of the given author, as of the last call to {@link #getAuthors()}
+     *
+     * @param userId    User identifier
+     * @return Author statistics, if the user authored any revision
+     */
+    public Optional<AuthorStatistics> getAuthorStatistics(UserId userId) {
+        return authorIndex.getStatistics(userId);
+    }
+
+    /**
+     * Get the commits to list following the given event, most recent first: the commits of the selected author
+     * when the author selection changes, or all commits otherwise. The underlying index is only extended with
+     * the revisions that arrived since the last call
+     *
+     * @param event Log diff event
+     * @return List of commits
+     */
     public List<CommitMetadata> getCommits(LogDiffEvent event) {
-        VersionedOntologyDocument vont = getVersionedOntologyDocument().get();
-        ChangeHistory changes = vont.getLocalHistory();
-        OntologyDocumentRevision rev = changes.getStartRevision();
-        while (changes.getMetaData(rev) != null) {
-            ChangeMetaData metaData = changes.getMetaData(rev);
-            if (event.equals(LogDiffEvent.AUTHOR_SELECTION_CHANGED) && getSelectedAuthor() != null &&
-                    (metaData.getUserId().equals(getSelectedAuthor()) || getSelectedAuthor().equals(LogDiffManager.ALL_AUTHORS)) ||
-                    event.equals(LogDiffEvent.ONTOLOGY_UPDATED)) {
-                CommitMetadata c = diffFactory.createCommitMetadata(diffFactory.createCommitId(metaData.hashCode()+""),
-                        metaData.getUserId(), metaData.getDate(), metaData.getCommitComment());
-                if (!commits.contains(c)) {
-                    commits.add(c);
-                }
-            }
-            rev = rev.next();
+        CommitIndex index = getCommitIndex();
+        index.update(getVersionedOntologyDocument());
+        UserId author = getSelectedAuthor();
+        if (event.equals(LogDiffEvent.AUTHOR_SELECTION_CHANGED) && author != null && !author.equals(ALL_AUTHORS)) {
+            return index.getCommits(author);
         }
-        Collections.sort(commits);
-        return commits;
+        return index.getCommits();
+    }
+
+    private synchronized CommitIndex getCommitIndex() {
+        if (commitIndex == null) {
+            commitIndex = new CommitIndex(diffFactory, getDiffEngine());
+        }
+        return commitIndex;
     }
 
     public void clearSelections() {
@@ -159,14 +186,29 @@ public class LogDiffManager implements Disposable {
         selectedChanges.clear();
     }
 
-    public LogDiff getDiffEngine() {
+    public synchronized LogDiff getDiffEngine() {
         if(diff == null) {
-            diff = new LogDiff(this, modelManager);
+            ClientPreferences preferences = ClientPreferences.getInstance();
+            ChangeStore store = (preferences.isCompactDiffStore() ? new CompactChangeStore(diffFactory) : new MapChangeStore(diffFactory));
+            diff = new LogDiff(this, modelManager, store);
+            diff.setParallelDecoding(preferences.isParallelDiffDecoding());
             reviewManager = new ReviewManagerImpl(diff);
         }
         return diff;
     }
 
+    /**
+     * Get the scheduler through which (coalesced, background) refreshes of the log diff are requested
+     *
+     * @return Log diff refresh scheduler
+     */
+    public synchronized LogDiffRefreshScheduler getRefreshScheduler() {
+        if(refreshScheduler == null) {
+            refreshScheduler = new LogDiffRefreshScheduler(this, ClientPreferences.getInstance().getDiffRefreshDelay());
+        }
+        return refreshScheduler;
+    }
+
     public void addListener(LogDiffListener listener) {
         listeners.add(checkNotNull(listener));
     }
@@ -233,5 +275,9 @@ public class LogDiffManager implements Disposable {
     }
 
     @Override
-    public void dispose() throws Exception { }
+    public void dispose() throws Exception {
+        if(refreshScheduler != null) {
+            refreshScheduler.dispose();
+        }
+    }
 }
@@ -0,0 +1,23 @@
+package org.protege.editor.owl.client.diff.model;
+
+import java.util.List;
+
+/**
+ * A listener that is notified as the log diff processes revisions, so that changes can be shown before
+ * the whole history has been processed
+ *
+ * @author Rafael Gonçalves <br>
+ * Stanford Center for Biomedical Informatics Research
+ */
+public interface LogDiffProgressListener {
+
+    /**
+     * Notify that a revision has been processed
+     *
+     * @param changes   Changes computed for the revision
+     * @param processed Number of revisions processed so far
+     * @param total Total number of revisions to process
+     */
+    void revisionProcessed(List<Change> changes, int processed, int total);
+
+}
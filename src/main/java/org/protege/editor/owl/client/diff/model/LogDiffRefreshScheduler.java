@@ -0,0 +1,108 @@
+package org.protege.editor.owl.client.diff.model;
+
+import org.protege.editor.core.Disposable;
+import org.protege.owl.server.api.OntologyDocumentRevision;
+import org.protege.owl.server.api.client.VersionedOntologyDocument;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.swing.*;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Coalesces requests to refresh the log diff. Requests that arrive within a window of the first pending
+ * request are handled by a single refresh, which recomputes the diff on a background thread and then notifies
+ * the diff listeners of the update on the event dispatch thread. Refreshes triggered by ontology edits are
+ * skipped when the local history is unchanged, since uncommitted edits do not affect the revision log
+ *
+ * @author Rafael Gonçalves <br>
+ * Stanford Center for Biomedical Informatics Research
+ */
+public class LogDiffRefreshScheduler implements Disposable {
+    private static final Logger log = LoggerFactory.getLogger(LogDiffRefreshScheduler.class);
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "Log Diff Refresh");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final LogDiffManager diffManager;
+    private final long delay;
+    private boolean pending = false, forced = false;
+    private VersionedOntologyDocument lastDocument;
+    private OntologyDocumentRevision lastEndRevision;
+
+    /**
+     * Constructor
+     *
+     * @param diffManager   Diff manager
+     * @param delay Window (in milliseconds) over which refresh requests are coalesced
+     */
+    public LogDiffRefreshScheduler(LogDiffManager diffManager, long delay) {
+        checkArgument(delay >= 0, "The refresh delay must not be negative");
+        this.diffManager = checkNotNull(diffManager);
+        this.delay = delay;
+    }
+
+    /**
+     * Request a refresh of the log diff following a change to the ontology. The refresh is skipped if,
+     * by the time it runs, the local history of the versioned ontology has not changed
+     */
+    public void ontologyChanged() {
+        schedule(false);
+    }
+
+    /**
+     * Request a refresh of the log diff, e.g., because an ontology was loaded or the active ontology changed.
+     * The diff listeners are notified even if the local history has not changed
+     */
+    public void refresh() {
+        schedule(true);
+    }
+
+    private synchronized void schedule(boolean force) {
+        forced |= force;
+        if (!pending) {
+            pending = true;
+            executor.schedule(this::runRefresh, delay, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void runRefresh() {
+        boolean force;
+        synchronized (this) {
+            force = forced;
+            pending = false;
+            forced = false;
+        }
+        try {
+            Optional<VersionedOntologyDocument> vont = diffManager.getVersionedOntologyDocument();
+            VersionedOntologyDocument document = vont.orElse(null);
+            OntologyDocumentRevision endRevision = (document != null ? document.getLocalHistory().getEndRevision() : null);
+            if (!force && document == lastDocument && Objects.equals(endRevision, lastEndRevision)) {
+                return; // only local, uncommitted edits
+            }
+            diffManager.getDiffEngine().initDiff();
+            // only remember what was processed once the diff succeeded, so that a failed refresh is retried
+            lastDocument = document;
+            lastEndRevision = endRevision;
+            SwingUtilities.invokeLater(() -> {
+                diffManager.clearSelections();
+                diffManager.statusChanged(LogDiffEvent.ONTOLOGY_UPDATED);
+            });
+        } catch (Exception e) {
+            log.error("Error refreshing the revision log diff", e);
+        }
+    }
+
+    @Override
+    public void dispose() {
+        executor.shutdownNow();
+    }
+}
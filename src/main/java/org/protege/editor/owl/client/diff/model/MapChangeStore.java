@@ -0,0 +1,103 @@
+package org.protege.editor.owl.client.diff.model;
+
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.Multimap;
+import org.protege.editor.owl.client.diff.DiffFactory;
+import org.protege.owl.server.api.UserId;
+import org.semanticweb.owlapi.model.OWLObject;
+import org.semanticweb.owlapi.model.OWLOntologyChange;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * A change store that keeps one {@link Change} object per change, indexed by hash maps
+ *
+ * @author Rafael Gonçalves <br>
+ * Stanford Center for Biomedical Informatics Research
+ */
+public class MapChangeStore implements ChangeStore {
+    private final DiffFactory diffFactory;
+    private Map<ChangeId, Change> changeMap = new HashMap<>();
+    private Multimap<UserId,ChangeId> changesByUser = HashMultimap.create();
+    private Multimap<CommitId,ChangeId> changesByCommit = HashMultimap.create();
+    private Multimap<OWLObject,ChangeId> changesBySubject = HashMultimap.create();
+
+    /**
+     * Constructor
+     *
+     * @param diffFactory   Diff factory
+     */
+    public MapChangeStore(DiffFactory diffFactory) {
+        this.diffFactory = checkNotNull(diffFactory);
+    }
+
+    @Override
+    public Change add(Set<OWLOntologyChange> changes, ChangeDetails details, CommitMetadata commitMetadata, ChangeMode changeMode) {
+        Change change = diffFactory.createChange(changes, details, commitMetadata, changeMode);
+        changeMap.put(change.getId(), change);
+        changesByUser.put(commitMetadata.getAuthor(), change.getId());
+        changesByCommit.put(commitMetadata.getCommitId(), change.getId());
+        changesBySubject.put(details.getSubject(), change.getId());
+        return change;
+    }
+
+    @Override
+    public void remove(Change change) {
+        ChangeId id = change.getId();
+        CommitMetadata commitMetadata = change.getCommitMetadata();
+        changeMap.remove(id);
+        changesByUser.remove(commitMetadata.getAuthor(), id);
+        changesByCommit.remove(commitMetadata.getCommitId(), id);
+        changesBySubject.remove(change.getDetails().getSubject(), id);
+    }
+
+    @Override
+    public Change get(ChangeId changeId) {
+        return changeMap.get(changeId);
+    }
+
+    @Override
+    public boolean contains(ChangeId changeId) {
+        return changeMap.containsKey(changeId);
+    }
+
+    @Override
+    public Collection<Change> getChanges() {
+        return changeMap.values();
+    }
+
+    @Override
+    public List<Change> getChangesForSubject(OWLObject subject) {
+        return getChanges(changesBySubject.get(subject));
+    }
+
+    @Override
+    public List<Change> getChangesForUser(UserId userId) {
+        return getChanges(changesByUser.get(userId));
+    }
+
+    @Override
+    public List<Change> getChangesForCommit(CommitId commitId) {
+        return getChanges(changesByCommit.get(commitId));
+    }
+
+    private List<Change> getChanges(Collection<ChangeId> changeIds) {
+        return changeIds.stream().map(id -> changeMap.get(id)).collect(Collectors.toList());
+    }
+
+    @Override
+    public int size() {
+        return changeMap.size();
+    }
+
+    @Override
+    public void clear() {
+        changeMap.clear();
+        changesByUser.clear();
+        changesByCommit.clear();
+        changesBySubject.clear();
+    }
+}
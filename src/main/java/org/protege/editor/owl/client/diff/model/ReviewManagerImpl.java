@@ -65,6 +65,9 @@ public class ReviewManagerImpl implements ReviewManager {
         List<OWLOntologyChange> changes = new ArrayList<>();
         for(ChangeId id : newReviews.keySet()) {
             Change c = diff.getChange(id);
+            if(c == null) {
+                continue; // the diff was recomputed since the review was made
+            }
             if(newReviews.get(c.getId()).equals(ReviewStatus.REJECTED)) {
                 Set<OWLOntologyChange> ontChanges = c.getChanges();
                 if (c.getBaselineChange().isPresent()) {
@@ -112,7 +115,9 @@ public class ReviewManagerImpl implements ReviewManager {
     public void clearUncommittedReviews() {
         for(ChangeId id : newReviews.keySet()) {
             Change c = diff.getChange(id);
-            c.setReviewStatus(ReviewStatus.PENDING);
+            if(c != null) {
+                c.setReviewStatus(ReviewStatus.PENDING);
+            }
         }
         newReviews.clear();
     }
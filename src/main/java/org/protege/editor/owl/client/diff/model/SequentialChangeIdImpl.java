@@ -0,0 +1,56 @@
+package org.protege.editor.owl.client.diff.model;
+
+import com.google.common.base.MoreObjects;
+
+/**
+ * A change identifier backed by a sequence number, which is cheaper to create, hash and compare than
+ * a string-based identifier
+ *
+ * @author Rafael Gonçalves <br>
+ * Stanford Center for Biomedical Informatics Research
+ */
+public final class SequentialChangeIdImpl implements ChangeId {
+    private final long id;
+
+    /**
+     * Constructor
+     *
+     * @param id    Sequence number
+     */
+    public SequentialChangeIdImpl(long id) {
+        this.id = id;
+    }
+
+    @Override
+    public String get() {
+        return Long.toString(id);
+    }
+
+    /**
+     * Get the sequence number of this identifier
+     *
+     * @return Sequence number
+     */
+    public long getSequenceNumber() {
+        return id;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        return id == ((SequentialChangeIdImpl) o).id;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(id);
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("id", id)
+                .toString();
+    }
+}
@@ -1,17 +1,31 @@
 package org.protege.editor.owl.client.diff.ui;
 
+import org.protege.editor.owl.client.diff.model.AuthorStatistics;
 import org.protege.editor.owl.client.diff.model.LogDiffManager;
 import org.protege.owl.server.api.UserId;
 
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
 import java.awt.*;
+import java.util.Optional;
+
+import static com.google.common.base.Preconditions.checkNotNull;
 
 /**
  * @author Rafael Gonçalves <br>
  * Stanford Center for Biomedical Informatics Research
  */
 public class AuthorListCellRenderer extends DefaultListCellRenderer {
+    private final LogDiffManager diffManager;
+
+    /**
+     * Constructor
+     *
+     * @param diffManager   Diff manager, from which author statistics are obtained
+     */
+    public AuthorListCellRenderer(LogDiffManager diffManager) {
+        this.diffManager = checkNotNull(diffManager);
+    }
 
     @Override
     public Component getListCellRendererComponent(JList list, Object value, int index, boolean isSelected, boolean cellHasFocus) {
@@ -20,9 +34,13 @@ public class AuthorListCellRenderer extends DefaultListCellRenderer {
         if(user.equals(LogDiffManager.ALL_AUTHORS)) {
             label.setIcon(GuiUtils.getIcon(GuiUtils.USERS_ICON_FILENAME, 20, 20));
             label.setFont(getFont().deriveFont(Font.BOLD));
+            label.setToolTipText(null);
         }
         else {
             label.setIcon(GuiUtils.getIcon(GuiUtils.USER_ICON_FILENAME, 20, 20));
+            Optional<AuthorStatistics> statistics = diffManager.getAuthorStatistics(user);
+            label.setToolTipText(statistics.map(s -> s.getCommitCount() + (s.getCommitCount() == 1 ? " commit" : " commits") +
+                    ", last on " + GuiUtils.getShortenedFormattedDate(s.getLastCommitDate())).orElse(null));
         }
         label.setBorder(new EmptyBorder(0, 7, 0, 0));
         label.setIconTextGap(7);
@@ -3,22 +3,18 @@ package org.protege.editor.owl.client.diff.ui;
 import org.protege.editor.core.Disposable;
 import org.protege.editor.owl.OWLEditorKit;
 import org.protege.editor.owl.client.diff.model.LogDiffEvent;
+import org.protege.editor.owl.client.diff.model.LogDiffListener;
 import org.protege.editor.owl.client.diff.model.LogDiffManager;
 import org.protege.editor.owl.model.OWLModelManager;
 import org.protege.editor.owl.model.event.EventType;
 import org.protege.editor.owl.model.event.OWLModelManagerListener;
-import org.protege.owl.server.api.ChangeHistory;
-import org.protege.owl.server.api.ChangeMetaData;
-import org.protege.owl.server.api.OntologyDocumentRevision;
 import org.protege.owl.server.api.UserId;
-import org.protege.owl.server.api.client.VersionedOntologyDocument;
 import org.semanticweb.owlapi.model.OWLOntologyChangeListener;
 
 import javax.swing.*;
 import javax.swing.event.ListSelectionListener;
 import java.awt.*;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 
 /**
@@ -46,6 +42,7 @@ public class AuthorPanel extends JPanel implements Disposable {
         // listeners
         modelManager.getOWLOntologyManager().addOntologyChangeListener(ontologyChangeListener);
         modelManager.addListener(ontologyLoadListener);
+        diffManager.addListener(diffListener);
 
         JScrollPane scrollPane = new JScrollPane(authorsList);
         scrollPane.setBorder(GuiUtils.EMPTY_BORDER);
@@ -60,43 +57,32 @@ public class AuthorPanel extends JPanel implements Disposable {
         }
     };
 
-    private OWLOntologyChangeListener ontologyChangeListener = changes -> {
-        diffManager.clearSelections();
-        listAuthors();
-        diffManager.statusChanged(LogDiffEvent.ONTOLOGY_UPDATED);
-    };
+    // edits are batched and refreshed in the background; the scheduler fires ONTOLOGY_UPDATED when done
+    private OWLOntologyChangeListener ontologyChangeListener = changes -> diffManager.getRefreshScheduler().ontologyChanged();
 
     private OWLModelManagerListener ontologyLoadListener = event -> {
         if(event.isType(EventType.ONTOLOGY_LOADED) || event.isType(EventType.ACTIVE_ONTOLOGY_CHANGED)) {
-            diffManager.clearSelections();
+            diffManager.getRefreshScheduler().refresh();
+        }
+    };
+
+    private LogDiffListener diffListener = event -> {
+        if(event.equals(LogDiffEvent.ONTOLOGY_UPDATED)) {
             listAuthors();
-            diffManager.statusChanged(LogDiffEvent.ONTOLOGY_UPDATED);
         }
     };
 
     private void setupList() {
         authorsList.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
         authorsList.addListSelectionListener(listSelectionListener);
-        authorsList.setCellRenderer(new AuthorListCellRenderer());
+        authorsList.setCellRenderer(new AuthorListCellRenderer(diffManager));
         authorsList.setFixedCellHeight(35);
         authorsList.setBorder(GuiUtils.MATTE_BORDER);
     }
 
     private void listAuthors() {
         if(diffManager.getVersionedOntologyDocument().isPresent()) {
-            VersionedOntologyDocument vont = diffManager.getVersionedOntologyDocument().get();
-            ChangeHistory changes = vont.getLocalHistory();
-            List<UserId> users = new ArrayList<>();
-            OntologyDocumentRevision rev = changes.getStartRevision();
-            while (changes.getMetaData(rev) != null) {
-                ChangeMetaData metaData = changes.getMetaData(rev);
-                UserId user = metaData.getUserId();
-                if (!users.contains(user)) {
-                    users.add(user);
-                }
-                rev = rev.next();
-            }
-            Collections.sort(users);
+            List<UserId> users = new ArrayList<>(diffManager.getAuthors());
             users.add(0, LogDiffManager.ALL_AUTHORS);
             authorsList.setListData(users.toArray(new UserId[users.size()]));
         }
@@ -109,6 +95,7 @@ public class AuthorPanel extends JPanel implements Disposable {
     public void dispose() {
         modelManager.removeListener(ontologyLoadListener);
         modelManager.getOWLOntologyManager().removeOntologyChangeListener(ontologyChangeListener);
+        diffManager.removeListener(diffListener);
         authorsList.removeListSelectionListener(listSelectionListener);
     }
 }
@@ -4,16 +4,20 @@ import org.protege.editor.core.Disposable;
 import org.protege.editor.owl.OWLEditorKit;
 import org.protege.editor.owl.client.diff.model.*;
 import org.protege.editor.owl.model.OWLModelManager;
+import org.protege.owl.server.api.UserId;
 
 import javax.swing.*;
 import javax.swing.event.ListSelectionListener;
+import javax.swing.event.RowSorterEvent;
+import javax.swing.event.RowSorterListener;
 import javax.swing.table.TableColumn;
-import javax.swing.table.TableModel;
-import javax.swing.table.TableRowSorter;
 import java.awt.*;
-import java.util.ArrayList;
-import java.util.Collections;
+import java.util.*;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Predicate;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
@@ -22,9 +26,20 @@ import static com.google.common.base.Preconditions.checkNotNull;
  * Stanford Center for Biomedical Informatics Research
  */
 public class ChangesPanel extends JPanel implements Disposable {
+    private static final long PUBLISH_INTERVAL = 200; // milliseconds between progressive table updates
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "Log Diff Computation");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final JProgressBar progressBar = new JProgressBar();
+    private Future<?> computation;
+    private int generation = 0; // identifies the latest computation; only accessed on the EDT
+    private boolean diffInProgress = false; // only accessed on the EDT
     private OWLEditorKit editorKit;
     private LogDiffManager diffManager;
     private ChangesTableModel diffTableModel;
+    private ChangesRowSorter sorter;
     private JTable table;
     private LogDiff diff;
 
@@ -44,6 +59,9 @@ public class ChangesPanel extends JPanel implements Disposable {
         setBorder(GuiUtils.MATTE_BORDER);
 
         createDiffTable();
+        progressBar.setStringPainted(true);
+        progressBar.setVisible(false);
+        add(progressBar, BorderLayout.SOUTH);
     }
 
     private ListSelectionListener rowSelectionListener = e -> {
@@ -68,27 +86,143 @@ public class ChangesPanel extends JPanel implements Disposable {
                 diffManager.clearSelectedChanges();
                 updateDiff(event);
             }
-            else if(event.equals(LogDiffEvent.ONTOLOGY_UPDATED)) { // TODO incrementally update change indices
-                diff.clear();
-                diff.initDiff();
+            else if(event.equals(LogDiffEvent.ONTOLOGY_UPDATED)) {
+                // the diff has already been refreshed in the background by the refresh scheduler
+                cancelComputation();
                 diffTableModel.setChanges(Collections.<Change>emptyList());
             }
             else if(event.equals(LogDiffEvent.CHANGE_REVIEWED)) {
                 revalidate(); repaint();
             }
             else if(event.equals(LogDiffEvent.RESET)) {
+                cancelComputation();
                 diffTableModel.clear();
             }
         }
     };
 
+    private RowSorterListener sortListener = e -> {
+        if (e.getType() == RowSorterEvent.Type.SORT_ORDER_CHANGED && !diffInProgress) {
+            sortChanges();
+        }
+    };
+
+    /**
+     * Compute the changes to display for the given event in the background, cancelling any computation for
+     * an earlier event. Changes are added to the table as revisions are processed, and replaced by the complete,
+     * sorted list of changes once the diff is up to date
+     *
+     * @param event Log diff event
+     */
     private void updateDiff(LogDiffEvent event) {
-        if(diff.getChanges().isEmpty()) {
-            diff.initDiff();
+        cancelComputation();
+        diffTableModel.setChanges(new ArrayList<>());
+        diffInProgress = true;
+        int requestGeneration = generation;
+        Predicate<Change> filter = getFilter(event);
+        computation = executor.submit(() -> {
+            diff.initDiff(new ProgressPublisher(filter, requestGeneration));
+            if (Thread.currentThread().isInterrupted()) {
+                return;
+            }
+            List<Change> changesToDisplay = sorter.sort(diff.getChangesToDisplay(event)); // sort keys read at the end
+            SwingUtilities.invokeLater(() -> {
+                if (requestGeneration == generation) {
+                    diffInProgress = false;
+                    progressBar.setVisible(false);
+                    diffTableModel.setChanges(changesToDisplay);
+                }
+            });
+        });
+    }
+
+    /**
+     * Re-sort the changes in the table in the background according to the current sort keys, keeping
+     * the selected changes selected
+     */
+    private void sortChanges() {
+        cancelComputation();
+        int requestGeneration = generation;
+        List<Change> changes = new ArrayList<>(diffTableModel.getChanges());
+        computation = executor.submit(() -> {
+            List<Change> sorted = sorter.sort(changes);
+            SwingUtilities.invokeLater(() -> {
+                if (requestGeneration == generation) {
+                    setChangesKeepingSelection(sorted);
+                }
+            });
+        });
+    }
+
+    private void setChangesKeepingSelection(List<Change> changes) {
+        Set<Change> selected = new HashSet<>(diffManager.getSelectedChanges());
+        diffTableModel.setChanges(changes);
+        if (!selected.isEmpty()) {
+            ListSelectionModel selectionModel = table.getSelectionModel();
+            selectionModel.setValueIsAdjusting(true);
+            for (int i = 0; i < changes.size(); i++) {
+                if (selected.contains(changes.get(i))) {
+                    selectionModel.addSelectionInterval(i, i);
+                }
+            }
+            selectionModel.setValueIsAdjusting(false);
+        }
+    }
+
+    private void cancelComputation() {
+        generation++;
+        diffInProgress = false;
+        if (computation != null) {
+            computation.cancel(true);
+            computation = null;
+        }
+        progressBar.setVisible(false);
+    }
+
+    private Predicate<Change> getFilter(LogDiffEvent event) {
+        if (event.equals(LogDiffEvent.AUTHOR_SELECTION_CHANGED)) {
+            UserId author = diffManager.getSelectedAuthor();
+            return c -> LogDiffManager.ALL_AUTHORS.equals(author) || c.getCommitMetadata().getAuthor().equals(author);
+        } else if (event.equals(LogDiffEvent.COMMIT_SELECTION_CHANGED)) {
+            CommitId commitId = diffManager.getSelectedCommit().getCommitId();
+            return c -> c.getCommitMetadata().getCommitId().equals(commitId);
+        }
+        return c -> false;
+    }
+
+    /**
+     * Publishes the changes that pass a filter to the table, in batches, as revisions are processed
+     */
+    private class ProgressPublisher implements LogDiffProgressListener {
+        private final Predicate<Change> filter;
+        private final int requestGeneration;
+        private List<Change> batch = new ArrayList<>();
+        private long lastPublished = System.currentTimeMillis();
+
+        ProgressPublisher(Predicate<Change> filter, int requestGeneration) {
+            this.filter = filter;
+            this.requestGeneration = requestGeneration;
+        }
+
+        @Override
+        public void revisionProcessed(List<Change> changes, int processed, int total) {
+            changes.stream().filter(filter).forEach(batch::add);
+            long now = System.currentTimeMillis();
+            if (now - lastPublished >= PUBLISH_INTERVAL || processed == total) {
+                List<Change> published = batch;
+                batch = new ArrayList<>();
+                lastPublished = now;
+                SwingUtilities.invokeLater(() -> {
+                    if (requestGeneration == generation) {
+                        diffTableModel.addChanges(published);
+                        progressBar.setMaximum(total);
+                        progressBar.setValue(processed);
+                        progressBar.setString("Processed " + processed + " of " + total + " revisions");
+                        progressBar.setVisible(processed < total);
+                    }
+                });
+            }
         }
-        List<Change> changesToDisplay = diff.getChangesToDisplay(event);
-        Collections.sort(changesToDisplay);
-        diffTableModel.setChanges(changesToDisplay);
     }
 
     private void createDiffTable() {
@@ -104,11 +238,11 @@ public class ChangesPanel extends JPanel implements Disposable {
         add(scrollPane, BorderLayout.CENTER);
         table.getSelectionModel().addListSelectionListener(rowSelectionListener);
 
-        // allow sorting columns (sort initially by the date column)
-        TableRowSorter<TableModel> sorter = new TableRowSorter<>(diffTableModel);
-        List<RowSorter.SortKey> sortKeys = new ArrayList<>();
-        sortKeys.add(new RowSorter.SortKey(ChangesTableModel.Column.DATE.ordinal(), SortOrder.DESCENDING));
-        sorter.setSortKeys(sortKeys);
+        // allow sorting columns (sort initially by the date column); sorting happens in the background, and the
+        // table model holds the changes in sorted order
+        sorter = new ChangesRowSorter(diffTableModel);
+        sorter.setSortKeys(Collections.singletonList(new RowSorter.SortKey(ChangesTableModel.Column.DATE.ordinal(), SortOrder.DESCENDING)));
+        sorter.addRowSorterListener(sortListener);
         table.setRowSorter(sorter);
     }
 
@@ -122,5 +256,8 @@ public class ChangesPanel extends JPanel implements Disposable {
     @Override
     public void dispose() {
         diffManager.removeListener(diffListener);
+        sorter.removeRowSorterListener(sortListener);
+        cancelComputation();
+        executor.shutdownNow();
     }
 }
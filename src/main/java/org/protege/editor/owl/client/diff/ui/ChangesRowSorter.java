@@ -0,0 +1,177 @@
+package org.protege.editor.owl.client.diff.ui;
+
+import com.google.common.collect.ImmutableList;
+import org.protege.editor.owl.client.diff.model.Change;
+import org.protege.editor.owl.client.diff.model.ReviewStatus;
+
+import javax.swing.*;
+import java.text.Collator;
+import java.util.*;
+import java.util.function.Function;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Strings.nullToEmpty;
+
+/**
+ * A row sorter for the changes table that keeps track of the sort keys chosen by the user, but leaves the
+ * actual sorting to {@link #sort(List)}, which is meant to run off the event dispatch thread. The model is
+ * expected to hold its changes in the sorted order, so view and model rows coincide
+ *
+ * @author Rafael Gonçalves <br>
+ * Stanford Center for Biomedical Informatics Research
+ */
+public class ChangesRowSorter extends RowSorter<ChangesTableModel> {
+    private static final int MAX_SORT_KEYS = 3;
+    private final ChangesTableModel model;
+    private volatile List<SortKey> sortKeys = ImmutableList.of();
+
+    /**
+     * Constructor
+     *
+     * @param model Changes table model
+     */
+    public ChangesRowSorter(ChangesTableModel model) {
+        this.model = checkNotNull(model);
+    }
+
+    /**
+     * Get a copy of the given changes sorted according to the current sort keys. The sort key of each change
+     * is computed once up front, and ties are broken by change subject
+     *
+     * @param changes   List of changes
+     * @return Sorted list of changes
+     */
+    public List<Change> sort(List<Change> changes) {
+        List<SortKey> keys = new ArrayList<>(sortKeys);
+        if (keys.stream().noneMatch(k -> k.getColumn() == ChangesTableModel.Column.CHANGE_SUBJECT.ordinal())) {
+            keys.add(new SortKey(ChangesTableModel.Column.CHANGE_SUBJECT.ordinal(), SortOrder.ASCENDING));
+        }
+        Collator collator = Collator.getInstance();
+        Comparator<Integer> comparator = null;
+        for (SortKey key : keys) {
+            ChangesTableModel.Column column = ChangesTableModel.Column.values()[key.getColumn()];
+            Comparator<Integer> columnComparator = getComparator(changes, column, collator);
+            if (key.getSortOrder() == SortOrder.DESCENDING) {
+                columnComparator = columnComparator.reversed();
+            }
+            comparator = (comparator == null ? columnComparator : comparator.thenComparing(columnComparator));
+        }
+        int size = changes.size();
+        Integer[] order = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, comparator);
+        List<Change> sorted = new ArrayList<>(size);
+        for (Integer i : order) {
+            sorted.add(changes.get(i));
+        }
+        return sorted;
+    }
+
+    /**
+     * Get a comparator of the positions of the given changes by their key in the given column. The keys are
+     * computed once for all changes up front
+     */
+    private Comparator<Integer> getComparator(List<Change> changes, ChangesTableModel.Column column, Collator collator) {
+        switch (column) {
+            case MODE:
+                return byKey(changes, Change::getMode);
+            case DATE:
+                return byKey(changes, c -> c.getCommitMetadata().getDate());
+            case AUTHOR:
+                return byKey(changes, c -> c.getCommitMetadata().getAuthor());
+            case CHANGE_SUBJECT:
+                return byKey(changes, c -> c.getDetails().getSubject());
+            case CHANGE_TYPE:
+                return byKey(changes, c -> collator.getCollationKey(nullToEmpty(c.getDetails().getType().getDisplayName())));
+            case REVISION_TAG:
+                return byKey(changes, c -> collator.getCollationKey(nullToEmpty(c.getDetails().getRevisionTag().getTag())));
+            case COMMENT:
+                return byKey(changes, c -> collator.getCollationKey(nullToEmpty(c.getCommitMetadata().getComment())));
+            case CONFLICT:
+                return byKey(changes, Change::isConflicting);
+            case REVIEW:
+                return byKey(changes, c -> (c.getReview() != null ? c.getReview().getStatus() : ReviewStatus.PENDING));
+            default:
+                throw new IllegalStateException("Programmer Error: a case was missed");
+        }
+    }
+
+    private static <K extends Comparable<? super K>> Comparator<Integer> byKey(List<Change> changes, Function<Change, K> key) {
+        List<K> keys = new ArrayList<>(changes.size());
+        for (Change change : changes) {
+            keys.add(key.apply(change));
+        }
+        return (i, j) -> keys.get(i).compareTo(keys.get(j));
+    }
+
+    @Override
+    public ChangesTableModel getModel() {
+        return model;
+    }
+
+    @Override
+    public void toggleSortOrder(int column) {
+        List<SortKey> keys = new ArrayList<>(sortKeys);
+        SortOrder order = SortOrder.ASCENDING;
+        if (!keys.isEmpty() && keys.get(0).getColumn() == column) {
+            order = (keys.get(0).getSortOrder() == SortOrder.ASCENDING ? SortOrder.DESCENDING : SortOrder.ASCENDING);
+        }
+        keys.removeIf(k -> k.getColumn() == column);
+        keys.add(0, new SortKey(column, order));
+        setSortKeys(keys.subList(0, Math.min(keys.size(), MAX_SORT_KEYS)));
+    }
+
+    @Override
+    public void setSortKeys(List<? extends SortKey> keys) {
+        List<SortKey> newKeys = (keys != null ? ImmutableList.copyOf(keys) : ImmutableList.of());
+        if (!newKeys.equals(sortKeys)) {
+            sortKeys = newKeys;
+            fireSortOrderChanged();
+        }
+    }
+
+    @Override
+    public List<? extends SortKey> getSortKeys() {
+        return sortKeys;
+    }
+
+    @Override
+    public int convertRowIndexToModel(int index) {
+        return index;
+    }
+
+    @Override
+    public int convertRowIndexToView(int index) {
+        return index;
+    }
+
+    @Override
+    public int getViewRowCount() {
+        return model.getRowCount();
+    }
+
+    @Override
+    public int getModelRowCount() {
+        return model.getRowCount();
+    }
+
+    @Override
+    public void modelStructureChanged() { }
+
+    @Override
+    public void allRowsChanged() { }
+
+    @Override
+    public void rowsInserted(int firstRow, int endRow) { }
+
+    @Override
+    public void rowsDeleted(int firstRow, int endRow) { }
+
+    @Override
+    public void rowsUpdated(int firstRow, int endRow) { }
+
+    @Override
+    public void rowsUpdated(int firstRow, int endRow, int column) { }
+}
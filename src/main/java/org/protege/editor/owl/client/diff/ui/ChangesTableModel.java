@@ -6,6 +6,7 @@ import org.semanticweb.owlapi.model.OWLObject;
 
 import javax.swing.table.AbstractTableModel;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 
@@ -29,6 +30,24 @@ public class ChangesTableModel extends AbstractTableModel {
         fireTableDataChanged();
     }
 
+    /**
+     * Append the given changes to the ones shown in the table
+     *
+     * @param newChanges    Changes to append
+     */
+    public void addChanges(List<Change> newChanges) {
+        checkNotNull(newChanges);
+        if (newChanges.isEmpty()) {
+            return;
+        }
+        if (!(changes instanceof ArrayList)) { // the list given to setChanges may not be modifiable
+            changes = new ArrayList<>(changes);
+        }
+        int firstRow = changes.size();
+        changes.addAll(newChanges);
+        fireTableRowsInserted(firstRow, changes.size() - 1);
+    }
+
     @Override
     public int getRowCount() {
         return (changes != null ? changes.size() : 0);
@@ -70,6 +89,15 @@ public class ChangesTableModel extends AbstractTableModel {
         return changes.get(rowIndex);
     }
 
+    /**
+     * Get the changes shown in the table, in row order
+     *
+     * @return List of changes
+     */
+    public List<Change> getChanges() {
+        return Collections.unmodifiableList(changes);
+    }
+
     @Override
     public Class<?> getColumnClass(int columnIndex) {
         Column col = Column.values()[columnIndex];
@@ -1,9 +1,9 @@
 package org.protege.editor.owl.client.diff.ui;
 
 import org.protege.editor.owl.OWLEditorKit;
+import org.protege.editor.owl.client.ui.CachingOWLCellRenderer;
 import org.protege.editor.owl.ui.OWLIcons;
 import org.protege.editor.owl.ui.renderer.OWLAnnotationPropertyIcon;
-import org.protege.editor.owl.ui.renderer.OWLCellRenderer;
 import org.semanticweb.owlapi.model.IRI;
 import org.semanticweb.owlapi.model.OWLObject;
 
@@ -13,7 +13,7 @@ import javax.swing.*;
  * @author Rafael Gonçalves <br>
  * Stanford Center for Biomedical Informatics Research
  */
-public class OwlCellRenderer extends OWLCellRenderer {
+public class OwlCellRenderer extends CachingOWLCellRenderer {
     private OWLEditorKit editorKit;
 
     public OwlCellRenderer(OWLEditorKit editorKit) {
@@ -5,11 +5,13 @@ import java.awt.Component;
 import java.awt.Dimension;
 import java.awt.Font;
 import java.awt.Insets;
+import java.awt.Rectangle;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
 
 import javax.swing.BorderFactory;
 import javax.swing.Box;
@@ -23,6 +25,9 @@ import javax.swing.JScrollPane;
 import javax.swing.JTable;
 import javax.swing.RowSorter;
 import javax.swing.SortOrder;
+import javax.swing.SwingWorker;
+import javax.swing.event.ChangeEvent;
+import javax.swing.event.ChangeListener;
 import javax.swing.event.ListSelectionEvent;
 import javax.swing.event.ListSelectionListener;
 import javax.swing.table.TableCellRenderer;
@@ -30,8 +35,9 @@ import javax.swing.table.TableColumnModel;
 import javax.swing.table.TableModel;
 import javax.swing.table.TableRowSorter;
 
+import org.protege.editor.core.ui.error.ErrorLogPanel;
 import org.protege.editor.owl.OWLEditorKit;
-import org.protege.editor.owl.ui.renderer.OWLCellRenderer;
+import org.protege.editor.owl.client.ui.CachingOWLCellRenderer;
 import org.protege.owl.server.api.ChangeHistory;
 import org.protege.owl.server.api.OntologyDocumentRevision;
 import org.semanticweb.owlapi.model.OWLObject;
@@ -44,15 +50,20 @@ public class ChangeHistoryPanel extends JDialog {
 	private static final long serialVersionUID = -372532962143290188L;
     private OWLEditorKit editorKit;
     private OWLOntology ontology;
-    private ChangeHistory changes;
+    private PagedChangeHistory history;
+    private HistoryTableModel historyTableModel;
+    private JLabel historyStatusLabel;
+    private boolean loading = false;
+    private int selectionGeneration = 0;
     private JTable changeListTable;
     private ChangeListTableModel changeListTableModel;
     
-	public ChangeHistoryPanel(OWLEditorKit editorKit, ChangeHistory changes) {
+	public ChangeHistoryPanel(OWLEditorKit editorKit, PagedChangeHistory history) {
 		this.editorKit = editorKit;
         this.ontology = editorKit.getOWLModelManager().getActiveOntology();
-		this.changes = changes;
+		this.history = history;
 		initUI();
+		loadNextPage();
 	}
 	
 	private void initUI() {
@@ -83,6 +94,10 @@ public class ChangeHistoryPanel extends JDialog {
 		panel.add(label);
 		panel.add(Box.createRigidArea(new Dimension(0,5)));
 		panel.add(getHistoryComponent());
+		panel.add(Box.createRigidArea(new Dimension(0,5)));
+		historyStatusLabel = new JLabel();
+		historyStatusLabel.setAlignmentX(Component.LEFT_ALIGNMENT);
+		panel.add(historyStatusLabel);
 		panel.add(Box.createRigidArea(new Dimension(0,11)));
 		
 		// Change details
@@ -122,18 +137,21 @@ public class ChangeHistoryPanel extends JDialog {
 	}
 	
 	private JComponent getHistoryComponent() {
-		HistoryTableModel model = new HistoryTableModel(changes);
+		final HistoryTableModel model = new HistoryTableModel();
+		historyTableModel = model;
         final JTable table = new JTable(model);
         table.getSelectionModel().addListSelectionListener(new ListSelectionListener() {
         	
             @Override
             public void valueChanged(ListSelectionEvent listSelectionEvent) {
-                List<OWLOntologyChange> changesToDisplay = new ArrayList<OWLOntologyChange>();
+                if (listSelectionEvent.getValueIsAdjusting()) {
+                    return;
+                }
+                List<OntologyDocumentRevision> revisions = new ArrayList<OntologyDocumentRevision>();
                 for (int row : table.getSelectedRows()) {
-                	OntologyDocumentRevision start = changes.getStartRevision().add(table.convertRowIndexToModel(row));
-                    changesToDisplay.addAll(changes.cropChanges(start, start.next()).getChanges(ontology));
+                    revisions.add(model.getRevision(table.convertRowIndexToModel(row)));
                 }
-                changeListTableModel.setChangeList(changesToDisplay);
+                showChanges(revisions);
             }
         });
         
@@ -151,15 +169,97 @@ public class ChangeHistoryPanel extends JDialog {
         sortKeys.add(new RowSorter.SortKey(0, SortOrder.DESCENDING));
         sorter.setSortKeys(sortKeys);
         
-        JScrollPane scrollPane = new JScrollPane(table);
+        // Fetch older revisions as the user scrolls towards the end of the table
+        final JScrollPane scrollPane = new JScrollPane(table);
+        scrollPane.getViewport().addChangeListener(new ChangeListener() {
+
+            @Override
+            public void stateChanged(ChangeEvent e) {
+                Rectangle view = scrollPane.getViewport().getViewRect();
+                if (view.y + view.height >= table.getHeight() - 10 * table.getRowHeight()) {
+                    loadNextPage();
+                }
+            }
+        });
         scrollPane.setAlignmentX(Component.LEFT_ALIGNMENT);
         return scrollPane;
     }
+
+    /*
+     * Materialise the changes of the selected revisions in the background; a later selection supersedes
+     * an earlier one
+     */
+    private void showChanges(final List<OntologyDocumentRevision> revisions) {
+        final int requestGeneration = ++selectionGeneration;
+        if (revisions.isEmpty()) {
+            changeListTableModel.setChangeList(new ArrayList<OWLOntologyChange>());
+            return;
+        }
+        new SwingWorker<List<OWLOntologyChange>, Void>() {
+
+            @Override
+            protected List<OWLOntologyChange> doInBackground() throws Exception {
+                return history.getChanges(revisions, ontology);
+            }
+
+            @Override
+            protected void done() {
+                if (requestGeneration != selectionGeneration) {
+                    return;
+                }
+                try {
+                    changeListTableModel.setChangeList(get());
+                }
+                catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                catch (ExecutionException e) {
+                    ErrorLogPanel.showErrorDialog(e.getCause());
+                }
+            }
+        }.execute();
+    }
+
+    private void loadNextPage() {
+        if (loading || !history.hasMorePages()) {
+            return;
+        }
+        loading = true;
+        updateHistoryStatus();
+        new SwingWorker<ChangeHistory, Void>() {
+
+            @Override
+            protected ChangeHistory doInBackground() throws Exception {
+                return history.loadNextPage();
+            }
+
+            @Override
+            protected void done() {
+                loading = false;
+                try {
+                    historyTableModel.addHistory(get());
+                    updateHistoryStatus();
+                }
+                catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                catch (ExecutionException e) {
+                    updateHistoryStatus();
+                    ErrorLogPanel.showErrorDialog(e.getCause());
+                }
+            }
+        }.execute();
+    }
+
+    private void updateHistoryStatus() {
+        String status = "Showing " + history.getLoadedRevisionCount() + " of " + history.getRevisionCount() + " revisions";
+        historyStatusLabel.setText(loading ? status + " (loading older revisions...)" : status);
+    }
     
     private JComponent getChangeListComponent() {
         changeListTableModel = new ChangeListTableModel(new ArrayList<OWLOntologyChange>());
         changeListTable = new JTable(changeListTableModel);
-        changeListTable.setDefaultRenderer(OWLObject.class, new OWLCellRenderer(editorKit));
+        changeListTable.setDefaultRenderer(OWLObject.class, new CachingOWLCellRenderer(editorKit));
         JScrollPane scrollPane = new JScrollPane(changeListTable);
         scrollPane.setAlignmentX(Component.LEFT_ALIGNMENT);
         return scrollPane;
@@ -1,5 +1,6 @@
 package org.protege.editor.owl.client.panel;
 
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 
@@ -49,17 +50,30 @@ public class ChangeListTableModel extends AbstractTableModel {
         
     }
     
-    private List<OWLOntologyChange> changes;
+    private List<Row> rows;
     
     public ChangeListTableModel(List<OWLOntologyChange> changes) {
-        this.changes = changes;
+        this.rows = getRows(changes);
     }
     
     public void setChangeList(List<OWLOntologyChange> changes) {
-        this.changes = changes;
+        this.rows = getRows(changes);
         fireTableStructureChanged();
     }
 
+    /*
+     * Visit each change once, so that painting the table needs no further visits
+     */
+    private static List<Row> getRows(List<OWLOntologyChange> changes) {
+        List<Row> rows = new ArrayList<Row>(changes.size());
+        RenderOntologyChangeVisitor visitor = new RenderOntologyChangeVisitor();
+        for (OWLOntologyChange change : changes) {
+            change.accept(visitor);
+            rows.add(new Row(visitor.getChangeType(), visitor.getEntityChanged()));
+        }
+        return rows;
+    }
+
     @Override
     public int getColumnCount() {
         return Column.values().length;
@@ -67,7 +81,7 @@ public class ChangeListTableModel extends AbstractTableModel {
 
     @Override
     public int getRowCount() {
-        return changes.size();
+        return rows.size();
     }
     
     @Override
@@ -92,20 +106,28 @@ public class ChangeListTableModel extends AbstractTableModel {
     @Override
     public Object getValueAt(int row, int column) {
         Column col = Column.values()[column];
-        OWLOntologyChange change = changes.get(row);
-        RenderOntologyChangeVisitor visitor = new RenderOntologyChangeVisitor();
-        change.accept(visitor);
+        Row r = rows.get(row);
         switch (col) {
         case CHANGE_TYPE:
-            return visitor.getChangeType();
+            return r.changeType;
         case ENTITY:
-            return visitor.getEntityChanged();
+            return r.entityChanged;
         default:
             throw new IllegalStateException("Programmer error: he missed a case");
         }
         
     }
 
+    private static class Row {
+        private final String changeType;
+        private final Object entityChanged;
+
+        public Row(String changeType, Object entityChanged) {
+            this.changeType = changeType;
+            this.entityChanged = entityChanged;
+        }
+    }
+
     private static class RenderOntologyChangeVisitor implements OWLOntologyChangeVisitor {
         private String changeType;
         private OWLObject entityChanged;
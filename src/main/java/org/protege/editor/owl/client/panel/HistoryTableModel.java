@@ -1,11 +1,14 @@
 package org.protege.editor.owl.client.panel;
 
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
 
 import javax.swing.table.AbstractTableModel;
 
 import org.protege.owl.server.api.ChangeHistory;
 import org.protege.owl.server.api.ChangeMetaData;
+import org.protege.owl.server.api.OntologyDocumentRevision;
 
 public class HistoryTableModel extends AbstractTableModel {
 	private static final long serialVersionUID = -1510343786742688724L;
@@ -50,15 +53,41 @@ public class HistoryTableModel extends AbstractTableModel {
         public abstract Object getValue(ChangeMetaData metaData);
         
     }
-    private ChangeHistory changes;
+    private List<ChangeMetaData> rows = new ArrayList<ChangeMetaData>();
+    private List<OntologyDocumentRevision> revisions = new ArrayList<OntologyDocumentRevision>();
     
+    public HistoryTableModel() {
+    }
+
     public HistoryTableModel(ChangeHistory changes) {
-        this.changes = changes;
+        addHistory(changes);
+    }
+
+    /**
+     * Add the revisions in the given history to the table. The metadata of each revision is looked up
+     * once here, rather than for every cell painted
+     */
+    public void addHistory(ChangeHistory changes) {
+        int firstRow = rows.size();
+        int size = changes.getEndRevision().getRevisionDifferenceFrom(changes.getStartRevision());
+        OntologyDocumentRevision revision = changes.getStartRevision();
+        for (int i = 0; i < size; i++) {
+            rows.add(changes.getMetaData(revision));
+            revisions.add(revision);
+            revision = revision.next();
+        }
+        if (size > 0) {
+            fireTableRowsInserted(firstRow, rows.size() - 1);
+        }
+    }
+
+    public OntologyDocumentRevision getRevision(int rowIndex) {
+        return revisions.get(rowIndex);
     }
 
     @Override
     public int getRowCount() {
-        return changes.getEndRevision().getRevisionDifferenceFrom(changes.getStartRevision());
+        return rows.size();
     }
 
     @Override
@@ -81,8 +110,7 @@ public class HistoryTableModel extends AbstractTableModel {
     @Override
     public Object getValueAt(int rowIndex, int columnIndex) {
         Column col = Column.values()[columnIndex];
-        ChangeMetaData metaData = changes.getMetaData(changes.getStartRevision().add(rowIndex));
-        return col.getValue(metaData);
+        return col.getValue(rows.get(rowIndex));
     }
 
 }
@@ -0,0 +1,272 @@
+package org.protege.editor.owl.client.panel;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+
+import org.protege.editor.owl.client.connect.ServerConnectionManager;
+import org.protege.owl.server.api.ChangeHistory;
+import org.protege.owl.server.api.OntologyDocumentRevision;
+import org.protege.owl.server.api.RevisionPointer;
+import org.protege.owl.server.api.client.Client;
+import org.protege.owl.server.api.client.VersionedOntologyDocument;
+import org.protege.owl.server.api.exception.OWLServerException;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyChange;
+
+/**
+ * The server history of a versioned ontology, served a page of revisions at a time, from the head revision
+ * backwards. Pages are loaded by the scheduler of the ontology, in turn with the other operations on it.
+ * Revisions in the local history are served from there. Other revisions are fetched from the server, and
+ * once the pages fetched reach back to the end of the local history, the revisions between the end of the
+ * local history and the server head are merged into it. The changes of a revision are only turned into OWL
+ * ontology changes when they are asked for, and are then kept in a bounded cache
+ */
+public class PagedChangeHistory {
+    private static final int MAX_CACHED_CHANGES = 100000;
+    private final ServerConnectionManager connectionManager;
+    private final Client client;
+    private final VersionedOntologyDocument vont;
+    private final int pageSize;
+    private final OntologyDocumentRevision headRevision;
+    private final List<ChangeHistory> pages = new ArrayList<ChangeHistory>(); // most recent first
+    private OntologyDocumentRevision oldestRevision; // start revision of the oldest page fetched
+    // changes of runs of revisions, least recently used first, bounded by the total number of changes
+    private final Map<RevisionRange, List<OWLOntologyChange>> changeCache = new LinkedHashMap<RevisionRange, List<OWLOntologyChange>>(16, 0.75f, true);
+    private int cachedChangeCount; // guarded by changeCache
+
+    public PagedChangeHistory(ServerConnectionManager connectionManager, Client client, VersionedOntologyDocument vont, int pageSize) throws OWLServerException {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("Page size must be positive: " + pageSize);
+        }
+        this.connectionManager = connectionManager;
+        this.client = client;
+        this.vont = vont;
+        this.pageSize = pageSize;
+        this.headRevision = client.evaluateRevisionPointer(vont.getServerDocument(), RevisionPointer.HEAD_REVISION);
+        this.oldestRevision = headRevision;
+    }
+
+    public OntologyDocumentRevision getHeadRevision() {
+        return headRevision;
+    }
+
+    /**
+     * Get the number of revisions in the server history
+     */
+    public int getRevisionCount() {
+        return headRevision.getRevisionDifferenceFrom(OntologyDocumentRevision.START_REVISION);
+    }
+
+    /**
+     * Get the number of revisions fetched so far
+     */
+    public synchronized int getLoadedRevisionCount() {
+        return headRevision.getRevisionDifferenceFrom(oldestRevision);
+    }
+
+    public synchronized boolean hasMorePages() {
+        return oldestRevision.getRevisionDifferenceFrom(OntologyDocumentRevision.START_REVISION) > 0;
+    }
+
+    /**
+     * Get the page of revisions that precedes the oldest page loaded so far, from the local history if it
+     * holds the revisions, or else from the server. The page is loaded by the scheduler of the ontology, and
+     * this waits for it, so it should not be called on the event dispatch thread. Only one page should be
+     * loaded at a time
+     *
+     * @return The history of the revisions in the page
+     */
+    public ChangeHistory loadNextPage() throws OWLServerException, InterruptedException {
+        try {
+            return connectionManager.getScheduler().submit(vont, new Callable<ChangeHistory>() {
+                @Override
+                public ChangeHistory call() throws OWLServerException {
+                    return doLoadNextPage();
+                }
+            }).get();
+        }
+        catch (ExecutionException e) {
+            if (e.getCause() instanceof OWLServerException) {
+                throw (OWLServerException) e.getCause();
+            }
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private ChangeHistory doLoadNextPage() throws OWLServerException {
+        OntologyDocumentRevision start, end;
+        synchronized (this) {
+            end = oldestRevision;
+            int remaining = end.getRevisionDifferenceFrom(OntologyDocumentRevision.START_REVISION);
+            start = OntologyDocumentRevision.START_REVISION.add(Math.max(0, remaining - pageSize));
+        }
+        ChangeHistory page;
+        ChangeHistory localHistory = vont.getLocalHistory();
+        OntologyDocumentRevision localStart = localHistory.getStartRevision();
+        OntologyDocumentRevision localEnd = localHistory.getEndRevision();
+        if (end.getRevisionDifferenceFrom(localStart) > 0 && localEnd.getRevisionDifferenceFrom(end) >= 0) {
+            if (localStart.getRevisionDifferenceFrom(start) > 0) {
+                start = localStart; // do not straddle the start of the local history
+            }
+            page = localHistory.cropChanges(start, end);
+        }
+        else {
+            if (end.getRevisionDifferenceFrom(localEnd) > 0 && localEnd.getRevisionDifferenceFrom(start) > 0) {
+                start = localEnd; // do not straddle the end of the local history
+            }
+            page = client.getChanges(vont.getServerDocument(), start.asPointer(), end.asPointer());
+        }
+        synchronized (this) {
+            pages.add(page);
+            oldestRevision = start;
+        }
+        mergeIntoLocalHistory();
+        return page;
+    }
+
+    /*
+     * Append the fetched revisions that follow on from the end of the local history to it, and have it saved.
+     * Runs on the scheduler of the ontology
+     */
+    private void mergeIntoLocalHistory() {
+        OntologyDocumentRevision localEnd = vont.getLocalHistory().getEndRevision();
+        boolean extended = false;
+        List<ChangeHistory> fetched;
+        synchronized (this) {
+            fetched = new ArrayList<ChangeHistory>(pages);
+        }
+        Collections.reverse(fetched); // oldest first
+        for (ChangeHistory page : fetched) {
+            if (page.getStartRevision().compareTo(localEnd) <= 0 && page.getEndRevision().compareTo(localEnd) > 0) {
+                vont.appendLocalHistory(page.cropChanges(localEnd, page.getEndRevision()));
+                localEnd = page.getEndRevision();
+                extended = true;
+            }
+        }
+        if (extended) {
+            connectionManager.saveHistoryInBackground(vont);
+        }
+    }
+
+    /**
+     * Get the changes of the given (loaded) revision
+     *
+     * @param revision  Revision
+     * @param ontology  Ontology the changes apply to
+     * @return The changes of the revision, or an empty list if the revision has not been loaded
+     */
+    public List<OWLOntologyChange> getChanges(OntologyDocumentRevision revision, OWLOntology ontology) {
+        return getChanges(Collections.singleton(revision), ontology);
+    }
+
+    /**
+     * Get the changes of the given (loaded) revisions, in revision order. Each run of consecutive revisions
+     * is resolved through a single crop of the history, and the result is cached. This may take a while,
+     * so it should not be called on the event dispatch thread
+     *
+     * @param revisions Revisions
+     * @param ontology  Ontology the changes apply to
+     * @return The changes of the revisions that have been loaded
+     */
+    public List<OWLOntologyChange> getChanges(Collection<OntologyDocumentRevision> revisions, OWLOntology ontology) {
+        int[] numbers = new int[revisions.size()];
+        int i = 0;
+        for (OntologyDocumentRevision revision : revisions) {
+            numbers[i++] = getRevisionNumber(revision);
+        }
+        Arrays.sort(numbers);
+        List<OWLOntologyChange> changes = new ArrayList<OWLOntologyChange>();
+        for (int runStart = 0; runStart < numbers.length; ) {
+            int runEnd = runStart + 1;
+            while (runEnd < numbers.length && numbers[runEnd] <= numbers[runEnd - 1] + 1) {
+                runEnd++;
+            }
+            changes.addAll(getChanges(numbers[runStart], numbers[runEnd - 1] + 1, ontology));
+            runStart = runEnd;
+        }
+        return changes;
+    }
+
+    private List<OWLOntologyChange> getChanges(int start, int end, OWLOntology ontology) {
+        RevisionRange range = new RevisionRange(start, end);
+        synchronized (changeCache) {
+            List<OWLOntologyChange> cached = changeCache.get(range);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        List<OWLOntologyChange> changes = new ArrayList<OWLOntologyChange>();
+        for (ChangeHistory page : getPages(start, end)) {
+            int pageStart = Math.max(start, getRevisionNumber(page.getStartRevision()));
+            int pageEnd = Math.min(end, getRevisionNumber(page.getEndRevision()));
+            changes.addAll(page.cropChanges(getRevision(pageStart), getRevision(pageEnd)).getChanges(ontology));
+        }
+        changes = Collections.unmodifiableList(changes);
+        synchronized (changeCache) {
+            if (changeCache.put(range, changes) == null) {
+                cachedChangeCount += changes.size();
+            }
+            Iterator<List<OWLOntologyChange>> it = changeCache.values().iterator();
+            while (cachedChangeCount > MAX_CACHED_CHANGES && changeCache.size() > 1) {
+                cachedChangeCount -= it.next().size();
+                it.remove();
+            }
+        }
+        return changes;
+    }
+
+    /*
+     * Get the loaded pages that overlap the given range of revisions, oldest first
+     */
+    private synchronized List<ChangeHistory> getPages(int start, int end) {
+        List<ChangeHistory> overlapping = new ArrayList<ChangeHistory>();
+        for (ChangeHistory page : pages) {
+            if (getRevisionNumber(page.getStartRevision()) < end && getRevisionNumber(page.getEndRevision()) > start) {
+                overlapping.add(0, page);
+            }
+        }
+        return overlapping;
+    }
+
+    private static int getRevisionNumber(OntologyDocumentRevision revision) {
+        return revision.getRevisionDifferenceFrom(OntologyDocumentRevision.START_REVISION);
+    }
+
+    private static OntologyDocumentRevision getRevision(int revisionNumber) {
+        return OntologyDocumentRevision.START_REVISION.add(revisionNumber);
+    }
+
+    private static class RevisionRange {
+        private final int start, end;
+
+        public RevisionRange(int start, int end) {
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof RevisionRange)) {
+                return false;
+            }
+            RevisionRange other = (RevisionRange) o;
+            return start == other.start && end == other.end;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * start + end;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package org.protege.editor.owl.client.ui;
+
+import org.protege.editor.owl.OWLEditorKit;
+import org.protege.editor.owl.ui.renderer.OWLCellRenderer;
+import org.semanticweb.owlapi.model.OWLObject;
+
+/**
+ * An OWL cell renderer that takes the renderings of OWL objects from the rendering cache shared by the
+ * cell renderers of the editor kit, rather than rendering them on every paint. This is the base of all
+ * the cell renderers of the client that render OWL objects
+ */
+public class CachingOWLCellRenderer extends OWLCellRenderer {
+    private final RenderingCache renderingCache;
+
+    public CachingOWLCellRenderer(OWLEditorKit editorKit) {
+        super(editorKit);
+        renderingCache = RenderingCache.get(editorKit.getOWLModelManager());
+    }
+
+    public CachingOWLCellRenderer(OWLEditorKit editorKit, boolean renderExpression, boolean renderIcon) {
+        super(editorKit, renderExpression, renderIcon);
+        renderingCache = RenderingCache.get(editorKit.getOWLModelManager());
+    }
+
+    @Override
+    protected String getRendering(Object object) {
+        if (object instanceof OWLObject) {
+            return renderingCache.getRendering((OWLObject) object);
+        }
+        return super.getRendering(object);
+    }
+}
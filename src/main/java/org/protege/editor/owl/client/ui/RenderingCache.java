@@ -0,0 +1,89 @@
+package org.protege.editor.owl.client.ui;
+
+import org.protege.editor.core.Disposable;
+import org.protege.editor.owl.model.OWLModelManager;
+import org.protege.editor.owl.model.event.EventType;
+import org.protege.editor.owl.model.event.OWLModelManagerListener;
+import org.semanticweb.owlapi.model.OWLObject;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * A bounded, least-recently-used cache of the renderings of OWL objects, shared by the cell renderers of a
+ * model manager. The cache is cleared whenever the entity renderer or the rendering of some entity changes
+ *
+ * @author Rafael Gonçalves <br>
+ * Stanford Center for Biomedical Informatics Research
+ */
+public class RenderingCache implements Disposable {
+    private static final int CAPACITY = 10000;
+    private final OWLModelManager modelManager;
+    private final Map<OWLObject, String> renderings = new LinkedHashMap<OWLObject, String>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<OWLObject, String> eldest) {
+            return size() > CAPACITY;
+        }
+    };
+
+    private final OWLModelManagerListener modelManagerListener = event -> {
+        if (event.isType(EventType.ENTITY_RENDERER_CHANGED) || event.isType(EventType.ENTITY_RENDERING_CHANGED) ||
+                event.isType(EventType.ACTIVE_ONTOLOGY_CHANGED) || event.isType(EventType.ONTOLOGY_VISIBILITY_CHANGED) ||
+                event.isType(EventType.ONTOLOGY_LOADED) || event.isType(EventType.ONTOLOGY_RELOADED)) {
+            clear();
+        }
+    };
+
+    /**
+     * Get the rendering cache of the given model manager
+     *
+     * @param modelManager  OWL model manager
+     * @return Rendering cache
+     */
+    public static RenderingCache get(OWLModelManager modelManager) {
+        RenderingCache cache = modelManager.get(RenderingCache.class);
+        if (cache == null) {
+            cache = new RenderingCache(modelManager);
+            modelManager.put(RenderingCache.class, cache);
+        }
+        return cache;
+    }
+
+    /**
+     * Private constructor
+     */
+    private RenderingCache(OWLModelManager modelManager) {
+        this.modelManager = checkNotNull(modelManager);
+        modelManager.addListener(modelManagerListener);
+    }
+
+    /**
+     * Get the rendering of the given OWL object, rendering it only if it is not in the cache
+     *
+     * @param object    OWL object
+     * @return Rendering of the OWL object
+     */
+    public synchronized String getRendering(OWLObject object) {
+        String rendering = renderings.get(object);
+        if (rendering == null) {
+            rendering = modelManager.getRendering(object);
+            renderings.put(object, rendering);
+        }
+        return rendering;
+    }
+
+    /**
+     * Clear the cache
+     */
+    public synchronized void clear() {
+        renderings.clear();
+    }
+
+    @Override
+    public void dispose() {
+        modelManager.removeListener(modelManagerListener);
+        clear();
+    }
+}